@@ -1,12 +1,12 @@
 package com.freeman.carddemo;
 
-import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.List;
 
 import android.app.Activity;
+import android.content.res.Resources;
 import android.graphics.Bitmap;
 import android.graphics.BitmapFactory;
-import android.graphics.Color;
 import android.graphics.drawable.Drawable;
 import android.os.Bundle;
 import android.view.Menu;
@@ -15,8 +15,11 @@ import android.view.View;
 import android.widget.Toast;
 
 import com.freeman.cardview.R;
-import com.freeman.cardview.views.BusinessCardChildView;
 import com.freeman.cardview.views.BusinessCardView;
+import com.freeman.cardview.views.DeckDiff;
+import com.freeman.cardview.views.ListDeckAdapter;
+import com.freeman.cardview.views.PagedDeckAdapter;
+import com.freeman.cardview.views.ThumbnailLoader;
 
 public class DeckDemoActivity extends Activity {
 	
@@ -24,7 +27,9 @@ public class DeckDemoActivity extends Activity {
 	
 	ArrayList<DemoData> mEntries;
 	
-	Bitmap mDefaultThumbnail;
+	ListDeckAdapter<DemoData> mAdapter;
+	
+	ThumbnailLoader<DemoData> mThumbnailLoader;
 
 	@Override
 	protected void onCreate(Bundle savedInstanceState) {
@@ -34,8 +39,28 @@ public class DeckDemoActivity extends Activity {
 		
 		mDeckView = (BusinessCardView) findViewById(R.id.deckview);
 		
-		mDefaultThumbnail = BitmapFactory.decodeResource(getResources(),
-                R.drawable.test_business_card);
+		// All the demo cards share the same thumbnail, decode it once, off the
+		// UI thread and subsampled to the width of the screen
+		final Resources res = getResources();
+		final int thumbnailWidth = res.getDisplayMetrics().widthPixels;
+		mThumbnailLoader = new ThumbnailLoader<DemoData>(new ThumbnailLoader.ThumbnailSource<DemoData>() {
+
+			@Override
+			public Object getCacheKey(DemoData item) {
+				return R.drawable.test_business_card;
+			}
+
+			@Override
+			public Bitmap decodeThumbnail(DemoData item) {
+				BitmapFactory.Options opts = new BitmapFactory.Options();
+				opts.inJustDecodeBounds = true;
+				BitmapFactory.decodeResource(res, R.drawable.test_business_card, opts);
+				opts.inSampleSize = ThumbnailLoader.calculateInSampleSize(opts.outWidth,
+						opts.outHeight, thumbnailWidth, 1);
+				opts.inJustDecodeBounds = false;
+				return BitmapFactory.decodeResource(res, R.drawable.test_business_card, opts);
+			}
+		}, ThumbnailLoader.getDefaultCacheSize());
         
         if(mEntries == null){
         	mEntries = new ArrayList<DemoData>();
@@ -49,28 +74,16 @@ public class DeckDemoActivity extends Activity {
 		
         BusinessCardView.Callback<DemoData> deckViewCallBack = new BusinessCardView.Callback<DemoData>() {
 
-			@Override
-			public ArrayList<DemoData> getData() {
-				return mEntries;
-			}
-
-			@Override
-			public void loadViewData(
-					WeakReference<BusinessCardChildView<DemoData>> dcv, DemoData item) {
-				loadViewDataInternal(item,dcv);
-			}
-
-			@Override
-			public void unloadViewData(DemoData item) {
-				// TODO Auto-generated method stub
-				
-			}
-
 			@Override
 			public void onViewDismissed(DemoData item) {
+				// The paged deck is read only
+				if (mDeckView.getAdapter() != mAdapter) {
+					return;
+				}
 				mEntries.remove(item);
 				
-				mDeckView.notifyDataSetChanged();
+				// Apply the dismissal right away, the swiped card must not come back
+				mAdapter.removeItem(item);
 			}
 
 			@Override
@@ -88,27 +101,64 @@ public class DeckDemoActivity extends Activity {
 			}
 		};
 		
-		mDeckView.initialize(deckViewCallBack);
-	}
+		mAdapter = new ListDeckAdapter<DemoData>(new DeckDiff.ItemCallback<DemoData>() {
 
-	protected void loadViewDataInternal(DemoData item,
-			WeakReference<BusinessCardChildView<DemoData>> weakView) {
-		if (weakView.get() != null) {
-            weakView.get().onDataLoaded(item, mDefaultThumbnail,
-                    null, "Loading...", Color.DKGRAY);
-        }
+			@Override
+			public long getItemId(DemoData item) {
+				return item.id;
+			}
+
+			@Override
+			public boolean areContentsTheSame(DemoData oldItem, DemoData newItem) {
+				return oldItem.strDesc.equals(newItem.strDesc);
+			}
+		});
+		mAdapter.submitList(mEntries);
+
+		mDeckView.initialize(mAdapter, new DemoCardBinder(mThumbnailLoader),
+				deckViewCallBack);
 	}
 	
 	private void changeDataSet(int size){
+		// Keep the cards that are already in the deck, so that they keep their views
 		ArrayList<DemoData> tempList = new ArrayList<DemoData>();
 		for(int i = 0; i < size; i++){
+			if (i < mEntries.size()) {
+				tempList.add(mEntries.get(i));
+				continue;
+			}
 			DemoData data = new DemoData();
     		data.strDesc = "test " + i;
 			tempList.add(data);
 		}
 		mEntries.clear();
 		mEntries.addAll(tempList);
-		mDeckView.notifyDataSetChanged();
+		mAdapter.submitList(mEntries);
+		mDeckView.setAdapter(mAdapter);
+	}
+	
+	private void showPagedDataSet(final int size){
+		// Only the pages around the visible cards are kept in memory
+		PagedDeckAdapter<DemoData> pagedAdapter = new PagedDeckAdapter<DemoData>(
+				new PagedDeckAdapter.PageSource<DemoData>() {
+
+			@Override
+			public int getCount() {
+				return size;
+			}
+
+			@Override
+			public List<DemoData> loadRange(int startPosition, int loadCount) {
+				List<DemoData> page = new ArrayList<DemoData>(loadCount);
+				for(int i = 0; i < loadCount; i++){
+					DemoData data = new DemoData();
+					data.strDesc = "paged " + (startPosition + i);
+					page.add(data);
+				}
+				return page;
+			}
+		}, 20, 8);
+		mDeckView.setAdapter(pagedAdapter);
 	}
 	
 	@Override
@@ -138,6 +188,9 @@ public class DeckDemoActivity extends Activity {
 		case R.id.action_set_thousand:
 			changeDataSet(1000);
 			break;
+		case R.id.action_set_fifty_thousand_paged:
+			showPagedDataSet(50000);
+			break;
 		}
 		return super.onOptionsItemSelected(item);
 	}
@@ -0,0 +1,26 @@
+package com.freeman.carddemo;
+
+import android.graphics.Color;
+
+import com.freeman.cardview.views.BusinessCardChildView;
+import com.freeman.cardview.views.CardBinder;
+import com.freeman.cardview.views.ThumbnailLoader;
+
+/**
+ * Renders the demo cards, the description is bound directly on the UI thread
+ * and the thumbnail is loaded through the thumbnail loader.
+ */
+public class DemoCardBinder extends CardBinder<DemoData, Void> {
+
+	ThumbnailLoader<DemoData> mThumbnailLoader;
+
+	public DemoCardBinder(ThumbnailLoader<DemoData> thumbnailLoader) {
+		mThumbnailLoader = thumbnailLoader;
+	}
+
+	@Override
+	public void onBind(BusinessCardChildView<DemoData> view, DemoData item) {
+		view.onDataLoaded(item, null, null, item.strDesc, Color.DKGRAY);
+		mThumbnailLoader.loadThumbnail(view, item);
+	}
+}
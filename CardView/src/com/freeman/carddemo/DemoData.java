@@ -1,6 +1,12 @@
 package com.freeman.carddemo;
 
+import java.util.concurrent.atomic.AtomicLong;
+
 public class DemoData {
 
+	// Demo data is created on both the UI thread and the page loading thread
+	private static final AtomicLong sNextId = new AtomicLong();
+
+	public final long id = sNextId.getAndIncrement();
 	public String strDesc;
 }
@@ -6,6 +6,8 @@ import android.view.View;
 import android.view.ViewPropertyAnimator;
 import android.view.animation.Interpolator;
 
+import com.freeman.cardview.layout.StackTransform;
+import com.freeman.cardview.layout.StackTransformBuffer;
 import com.freeman.cardview.utilities.DVUtils;
 
 public class BusinessCardChildViewTransform {
@@ -33,6 +35,35 @@ public class BusinessCardChildViewTransform {
 		p = o.p;
 	}
 
+	/**
+	 * Copies a transform computed by the stack layout, keeping the start delay.
+	 */
+	public BusinessCardChildViewTransform set(StackTransform o) {
+		translationY = o.translationY;
+		translationZ = o.translationZ;
+		scale = o.scale;
+		alpha = o.alpha;
+		visible = o.visible;
+		rect.set(o.rect.left, o.rect.top, o.rect.right, o.rect.bottom);
+		p = o.p;
+		return this;
+	}
+
+	/**
+	 * Copies the transform of the task at the given index out of a transform buffer.
+	 */
+	public BusinessCardChildViewTransform set(StackTransformBuffer buffer, int index) {
+		translationY = buffer.getTranslationY(index);
+		translationZ = buffer.getTranslationZ(index);
+		scale = buffer.getScale(index);
+		alpha = buffer.getAlpha(index);
+		visible = buffer.isVisible(index);
+		rect.set(buffer.getRectLeft(index), buffer.getRectTop(index),
+				buffer.getRectRight(index), buffer.getRectBottom(index));
+		p = buffer.getP(index);
+		return this;
+	}
+
 	/**
 	 * Resets the current transform
 	 */
@@ -101,11 +132,8 @@ public class BusinessCardChildViewTransform {
 					anim.withLayer();
 				}
 				if (DVUtils.isAboveSDKVersion(19)) {
-//					if (updateCallback != null) {
-//						anim.setUpdateListener(updateCallback);
-//					} else {
-//						anim.setUpdateListener(null);
-//					}
+					// Also clears the listener of a previous animation
+					anim.setUpdateListener(updateCallback);
 				}
 				anim.setStartDelay(startDelay).setDuration(duration)
 						.setInterpolator(interp).start();
@@ -132,6 +132,7 @@ public class BusinessCardViewConfig {
      * Misc *
      */
     public boolean useHardwareLayers;
+    public boolean dimWithOverlay;
     public int altTabKeyDelay;
     public boolean fakeShadows;
 
@@ -261,6 +262,7 @@ public class BusinessCardViewConfig {
 
         // Misc
         useHardwareLayers = res.getBoolean(R.bool.config_use_hardware_layers);
+        dimWithOverlay = res.getBoolean(R.bool.config_dim_with_overlay);
         altTabKeyDelay = res.getInteger(R.integer.deck_alt_tab_key_delay);
         fakeShadows = res.getBoolean(R.bool.config_fake_shadows);
         svelteLevel = res.getInteger(R.integer.deck_svelte_level);
@@ -0,0 +1,46 @@
+package com.freeman.cardview.layout;
+
+/* The default log curve of the stack.
+ *
+ * The larger the x scale, the longer the flat area of the curve at the top of the stack.
+ */
+public class LogStackCurve implements StackCurve {
+
+    public static final LogStackCurve DEFAULT = new LogStackCurve(1.75f, 3000);
+
+    final float mXScale;
+    final float mLogBase;
+
+    public LogStackCurve(float xScale, float logBase) {
+        mXScale = xScale;
+        mLogBase = logBase;
+    }
+
+    /**
+     * Reverses and scales out x.
+     */
+    float reverse(float x) {
+        return (-x * mXScale) + 1;
+    }
+
+    /**
+     * The log function describing the curve.
+     */
+    @Override
+    public float evaluate(float x) {
+        return 1f - (float) (Math.pow(mLogBase, reverse(x))) / (mLogBase);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LogStackCurve)) return false;
+        LogStackCurve c = (LogStackCurve) o;
+        return Float.compare(mXScale, c.mXScale) == 0 && Float.compare(mLogBase, c.mLogBase) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Float.floatToIntBits(mXScale) + Float.floatToIntBits(mLogBase);
+    }
+}
@@ -0,0 +1,16 @@
+package com.freeman.cardview.layout;
+
+/* The curve that the tasks follow as they go back in the stack.
+ *
+ * A stack curve maps x in 0..1 (the normalized screen position within the stack rect) to the
+ * shape of the stack.  Curves are compiled into lookup tables by StackCurveTable, which are shared
+ * between all stacks that use equal curves at the same resolution, so implementations should be
+ * immutable and implement equals() and hashCode() over their parameters.
+ */
+public interface StackCurve {
+
+    /**
+     * Evaluates the curve at x, where x is in the range 0..1.
+     */
+    public float evaluate(float x);
+}
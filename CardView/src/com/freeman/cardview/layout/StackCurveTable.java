@@ -0,0 +1,183 @@
+package com.freeman.cardview.layout;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/* An immutable lookup table compiled from a StackCurve.
+ *
+ * The table maps the progress along the curve (p) to the normalized screen position (x) and back,
+ * at a given resolution.  The resolution is usually the height of the stack rect in pixels, so that
+ * the lookups are exact to one pixel.  Lookups use 16.16 fixed point indexing, and each table stores
+ * the value and the slope at every step so that a lookup is two array reads.
+ *
+ * Tables are cached by curve and resolution, and may be obtained from any thread.  Only the most
+ * recently used tables are cached, so that each new resolution (a rotation, a resize) or curve does
+ * not keep its table for the life of the process.  A stack keeps a reference to its own table.
+ */
+public class StackCurveTable {
+
+    // The resolution used before the stack rect is known
+    public static final int DefaultResolution = 250;
+    // The resolution is bounded so that (resolution << FixedPointShift) fits in an int
+    static final int MaxResolution = 1 << 14;
+
+    static final int FixedPointShift = 16;
+    static final int FixedPointMask = (1 << FixedPointShift) - 1;
+    static final float FixedPointFraction = 1f / (1 << FixedPointShift);
+
+    // The number of tables kept in the cache, enough for both orientations of a couple of stacks
+    static final int MaxCachedTables = 4;
+
+    // The cached tables, least recently used first
+    static final LinkedHashMap<Key, StackCurveTable> sTables =
+            new LinkedHashMap<Key, StackCurveTable>(MaxCachedTables * 2, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, StackCurveTable> eldest) {
+                    return size() > MaxCachedTables;
+                }
+            };
+
+    final int mResolution;
+    final float mFixedPointScale;
+    // x(p) and its slope per step, and p(x) and its slope per step
+    final float[] mXp;
+    final float[] mXpSlope;
+    final float[] mPx;
+    final float[] mPxSlope;
+
+    /**
+     * Returns the table for the given curve at the given resolution, compiling it if necessary.
+     */
+    public static StackCurveTable obtain(StackCurve curve, int resolution) {
+        resolution = Math.max(1, Math.min(MaxResolution, resolution));
+        Key key = new Key(curve, resolution);
+        synchronized (sTables) {
+            StackCurveTable table = sTables.get(key);
+            if (table == null) {
+                table = new StackCurveTable(curve, resolution);
+                sTables.put(key, table);
+            }
+            return table;
+        }
+    }
+
+    StackCurveTable(StackCurve curve, int resolution) {
+        mResolution = resolution;
+        mFixedPointScale = (float) (resolution << FixedPointShift);
+
+        int steps = resolution;
+        double step = 1d / steps;
+        float[] xp = new float[steps + 1];
+        float[] px = new float[steps + 1];
+
+        // Approximate f(x)
+        double[] fx = new double[steps + 1];
+        for (int xStep = 0; xStep <= steps; xStep++) {
+            fx[xStep] = curve.evaluate((float) (xStep * step));
+        }
+        // Calculate the arc length for x:1->0
+        double pLength = 0;
+        double[] dx = new double[steps + 1];
+        dx[0] = 0;
+        for (int xStep = 1; xStep < steps; xStep++) {
+            dx[xStep] = Math.sqrt(Math.pow(fx[xStep] - fx[xStep - 1], 2) + Math.pow(step, 2));
+            pLength += dx[xStep];
+        }
+        // Approximate p(x), a function of cumulative progress with x, normalized to 0..1
+        double p = 0;
+        px[0] = 0f;
+        px[steps] = 1f;
+        for (int xStep = 1; xStep <= steps; xStep++) {
+            p += Math.abs(dx[xStep] / pLength);
+            px[xStep] = (float) p;
+        }
+        // Given p(x), calculate the inverse function x(p). This assumes that x(p) is also a valid
+        // function.
+        int xStep = 0;
+        xp[0] = 0f;
+        xp[steps] = 1f;
+        for (int pStep = 0; pStep < steps; pStep++) {
+            p = pStep * step;
+            // Walk forward in px and find the x where px <= p && p < px+1
+            while (xStep < steps) {
+                if (px[xStep] > p) break;
+                xStep++;
+            }
+            // Now, px[xStep-1] <= p < px[xStep]
+            if (xStep == 0) {
+                xp[pStep] = 0;
+            } else {
+                // Find x such that proportionally, x is correct
+                double fraction = (p - px[xStep - 1]) / (px[xStep] - px[xStep - 1]);
+                xp[pStep] = (float) ((xStep - 1 + fraction) * step);
+            }
+        }
+
+        mXp = xp;
+        mXpSlope = computeSlopes(xp);
+        mPx = px;
+        mPxSlope = computeSlopes(px);
+    }
+
+    /**
+     * Returns the slope between each pair of consecutive values, with a flat slope at the end so
+     * that a lookup at exactly 1 does not need to be special cased.
+     */
+    static float[] computeSlopes(float[] values) {
+        int steps = values.length - 1;
+        float[] slopes = new float[steps + 1];
+        for (int i = 0; i < steps; i++) {
+            slopes[i] = values[i + 1] - values[i];
+        }
+        slopes[steps] = 0f;
+        return slopes;
+    }
+
+    /**
+     * Returns the resolution of this table.
+     */
+    public int getResolution() {
+        return mResolution;
+    }
+
+    /**
+     * Converts from the progress along the curve (0..1) to the normalized screen position.
+     */
+    public float progressToX(float p) {
+        int fixed = (int) (p * mFixedPointScale);
+        int i = fixed >> FixedPointShift;
+        return mXp[i] + mXpSlope[i] * ((fixed & FixedPointMask) * FixedPointFraction);
+    }
+
+    /**
+     * Converts from the normalized screen position (0..1) to the progress along the curve.
+     */
+    public float xToProgress(float x) {
+        int fixed = (int) (x * mFixedPointScale);
+        int i = fixed >> FixedPointShift;
+        return mPx[i] + mPxSlope[i] * ((fixed & FixedPointMask) * FixedPointFraction);
+    }
+
+    /* The cache key of a table */
+    static class Key {
+        final StackCurve curve;
+        final int resolution;
+
+        Key(StackCurve curve, int resolution) {
+            this.curve = curve;
+            this.resolution = resolution;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return resolution == k.resolution && curve.equals(k.curve);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * curve.hashCode() + resolution;
+        }
+    }
+}
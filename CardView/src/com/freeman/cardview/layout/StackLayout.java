@@ -0,0 +1,508 @@
+package com.freeman.cardview.layout;
+
+/* The layout math of the card stack, free of any Android dependency.
+ *
+ * We are using a curve that defines the curve of the tasks as that go back in the recents list.
+ * The curve is defined such that at curve progress p = 0 is the end of the curve (the top of the
+ * stack rect), and p = 1 at the start of the curve and the bottom of the stack rect.
+ *
+ * The progress of each task only depends on its position, p(i) = base + i * step, so none of the
+ * methods below keep per-task state.
+ */
+public class StackLayout {
+
+    // The min scale of the last card in the peek area
+    public static final float StackPeekMinScale = 0.8f;
+
+    // The layout parameters
+    float mWidthPaddingPct;
+    int mTopPaddingPx;
+    int mTaskBarHeight;
+    int mTranslationZMinPx;
+    int mTranslationZMaxPx;
+
+    // The various rects that define the stack view
+    public final StackRect mViewRect = new StackRect();
+    public final StackRect mStackVisibleRect = new StackRect();
+    public final StackRect mStackRect = new StackRect();
+    public final StackRect mTaskRect = new StackRect();
+
+    // The min/max scroll progress
+    float mMinScrollP;
+    float mMaxScrollP;
+    float mInitialScrollP;
+    int mWithinAffiliationOffset;
+    int mBetweenAffiliationOffset;
+    // The curve progress of each card: p(i) = mTaskProgressBase + i * mTaskProgressStep
+    float mTaskProgressBase;
+    float mTaskProgressStep;
+    int mTaskCount;
+    // The progress between the top of the front most task and the max scroll, and the launch state
+    // used to compute the initial scroll, so that the bounds can be updated as the data changes
+    float mMaxScrollOffset;
+    boolean mLaunchedWithAltTab;
+    boolean mLaunchedFromHome;
+
+    // The curve, and its lookup table at the resolution of the stack rect
+    StackCurve mCurve = LogStackCurve.DEFAULT;
+    StackCurveTable mCurveTable;
+
+    final int[] mTmpVisibleRange = new int[2];
+
+    public StackLayout() {
+        // Use a coarse table until we know the size of the stack rect
+        mCurveTable = StackCurveTable.obtain(mCurve, StackCurveTable.DefaultResolution);
+    }
+
+    /**
+     * Sets the paddings, the task bar height and the z range used to lay out the stack.
+     */
+    public void setLayoutParams(float widthPaddingPct, int topPaddingPx, int taskBarHeight,
+                                int translationZMinPx, int translationZMaxPx) {
+        mWidthPaddingPct = widthPaddingPct;
+        mTopPaddingPx = topPaddingPx;
+        mTaskBarHeight = taskBarHeight;
+        mTranslationZMinPx = translationZMinPx;
+        mTranslationZMaxPx = translationZMaxPx;
+    }
+
+    /**
+     * Sets the curve that the tasks follow as they go back in the stack.  computeRects() and
+     * computeMinMaxScroll() must be called afterwards.
+     */
+    public void setStackCurve(StackCurve curve) {
+        mCurve = curve;
+        mCurveTable = StackCurveTable.obtain(mCurve, mStackVisibleRect.height() > 0 ?
+                mStackVisibleRect.height() : StackCurveTable.DefaultResolution);
+    }
+
+    public StackCurve getStackCurve() {
+        return mCurve;
+    }
+
+    /**
+     * Computes the stack and task rects
+     */
+    public void computeRects(int windowWidth, int windowHeight, int boundsLeft, int boundsTop,
+                             int boundsRight, int boundsBottom) {
+        // Compute the stack rects
+        mViewRect.set(0, 0, windowWidth, windowHeight);
+        mStackRect.set(boundsLeft, boundsTop, boundsRight, boundsBottom);
+        mStackVisibleRect.set(mStackRect);
+        mStackVisibleRect.bottom = mViewRect.bottom;
+
+        // Compile the curve at the resolution of the visible stack rect, so that it is exact to a pixel
+        if (mStackVisibleRect.height() > 0 &&
+                mCurveTable.getResolution() != mStackVisibleRect.height()) {
+            mCurveTable = StackCurveTable.obtain(mCurve, mStackVisibleRect.height());
+        }
+
+        int widthPadding = (int) (mWidthPaddingPct * mStackRect.width());
+        int heightPadding = mTopPaddingPx;
+        mStackRect.inset(widthPadding, heightPadding);
+
+        // Compute the task rect
+        int size = mStackRect.width();
+        int left = mStackRect.left + (mStackRect.width() - size) / 2;
+        mTaskRect.set(left, mStackRect.top,
+                left + size, mStackRect.top + size);
+
+        // Update the affiliation offsets
+        float visibleTaskPct = 0.5f;
+        mWithinAffiliationOffset = mTaskBarHeight;
+        mBetweenAffiliationOffset = (int) (visibleTaskPct * mTaskRect.height());
+    }
+
+    /**
+     * Computes the minimum and maximum scroll progress values.
+     */
+    public void computeMinMaxScroll(int taskCount, boolean launchedWithAltTab,
+                                    boolean launchedFromHome) {
+        // No per-card state is kept, so this is O(1) regardless of the number of cards
+        mTaskCount = taskCount;
+        mLaunchedWithAltTab = launchedWithAltTab;
+        mLaunchedFromHome = launchedFromHome;
+
+        // Note that we should account for the scale difference of the offsets at the screen bottom
+        int taskHeight = mTaskRect.height();
+        float pAtBottomOfStackRect = screenYToCurveProgress(mStackVisibleRect.bottom);
+        float pBetweenAffiliateOffset = pAtBottomOfStackRect -
+                screenYToCurveProgress(mStackVisibleRect.bottom - mBetweenAffiliationOffset);
+        float pTaskHeightOffset = pAtBottomOfStackRect -
+                screenYToCurveProgress(mStackVisibleRect.bottom - taskHeight);
+        float pNavBarOffset = pAtBottomOfStackRect -
+                screenYToCurveProgress(mStackVisibleRect.bottom - (mStackVisibleRect.bottom -
+                        mStackRect.bottom));
+
+        // Update the task offsets
+        float pAtBackMostCardTop = 0.5f;
+        mTaskProgressBase = pAtBackMostCardTop;
+        mTaskProgressStep = pBetweenAffiliateOffset;
+        mMaxScrollOffset = 1f - pTaskHeightOffset - pNavBarOffset;
+
+        updateScrollBounds();
+    }
+
+    /**
+     * Updates the scroll bounds after tasks were inserted.  Since the progress of each task only
+     * depends on its position, this is O(1).
+     */
+    public void onTaskRangeInserted(int positionStart, int itemCount) {
+        mTaskCount += itemCount;
+        updateScrollBounds();
+    }
+
+    /**
+     * Updates the scroll bounds after tasks were removed.
+     */
+    public void onTaskRangeRemoved(int positionStart, int itemCount) {
+        mTaskCount = Math.max(0, mTaskCount - itemCount);
+        updateScrollBounds();
+    }
+
+    /**
+     * Updates the scroll bounds after a task was moved.  The progress is positional and the
+     * number of tasks is unchanged, so there is nothing to update.
+     */
+    public void onTaskMoved(int fromPosition, int toPosition) {
+        // Do nothing
+    }
+
+    /**
+     * Updates the min, max and initial scroll for the current number of tasks.
+     */
+    void updateScrollBounds() {
+        int taskCount = mTaskCount;
+
+        // Return early if we have no tasks
+        if (taskCount == 0) {
+            mMinScrollP = mMaxScrollP = 0;
+            return;
+        }
+
+        float pAtFrontMostCardTop = getTaskProgress(taskCount - 1);
+        mMaxScrollP = pAtFrontMostCardTop - mMaxScrollOffset;
+        mMinScrollP = taskCount == 1 ? Math.max(mMaxScrollP, 0f) : 0f;
+        if (mLaunchedWithAltTab && mLaunchedFromHome) {
+            // Center the top most task, since that will be focused first
+            mInitialScrollP = mMaxScrollP;
+        } else {
+            mInitialScrollP = pAtFrontMostCardTop - 0.825f;
+        }
+        mInitialScrollP = Math.min(mMaxScrollP, Math.max(0, mInitialScrollP));
+    }
+
+    public float getMinScrollP() {
+        return mMinScrollP;
+    }
+
+    public float getMaxScrollP() {
+        return mMaxScrollP;
+    }
+
+    public float getInitialScrollP() {
+        return mInitialScrollP;
+    }
+
+    public int getTaskCount() {
+        return mTaskCount;
+    }
+
+    /**
+     * Computes the maximum number of visible tasks and thumbnails at the initial scroll.  The
+     * task count is written to countsOut[0] and the thumbnail count to countsOut[1].  Requires
+     * that computeMinMaxScroll() is called first.
+     */
+    public void computeVisibleTaskCounts(int[] countsOut) {
+        if (mTaskCount <= 1) {
+            countsOut[0] = countsOut[1] = 1;
+            return;
+        }
+
+        // Walk backwards in the task stack and count the number of tasks and visible thumbnails
+        int taskHeight = mTaskRect.height();
+        int numVisibleTasks = 1;
+        int numVisibleThumbnails = 1;
+        float progress = getTaskProgress(mTaskCount - 1) - mInitialScrollP;
+        int prevScreenY = curveProgressToScreenY(progress);
+        for (int i = mTaskCount - 2; i >= 0; i--) {
+            progress = getTaskProgress(i) - mInitialScrollP;
+            if (progress < 0) {
+                break;
+            }
+
+            float scaleAtP = curveProgressToScale(progress);
+            int scaleYOffsetAtP = (int) (((1f - scaleAtP) * taskHeight) / 2);
+            int screenY = curveProgressToScreenY(progress) + scaleYOffsetAtP;
+            boolean hasVisibleThumbnail = (prevScreenY - screenY) > mTaskBarHeight;
+            if (hasVisibleThumbnail) {
+                numVisibleThumbnails++;
+                numVisibleTasks++;
+                prevScreenY = screenY;
+            } else {
+                // Once we hit the next front most task that does not have a visible thumbnail,
+                // count the remaining visible set (everything behind this task, since its
+                // progress is already known to be non-negative)
+                numVisibleTasks += i + 1;
+                break;
+            }
+        }
+        countsOut[0] = numVisibleTasks;
+        countsOut[1] = numVisibleThumbnails;
+    }
+
+    /**
+     * Computes the transforms of the visible tasks for the given stack scroll into the buffer,
+     * and returns whether there is a valid visible range.  The range is also written to
+     * visibleRangeOut, if it is not null.  If boundTranslationsToRect is set, the translations
+     * are capped at the bottom of the view rect.
+     */
+    public boolean computeStackTransforms(float stackScroll, StackTransformBuffer transformsOut,
+                                          StackTransform tmpTransform, int[] visibleRangeOut,
+                                          boolean boundTranslationsToRect) {
+        int[] range = visibleRangeOut != null ? visibleRangeOut : mTmpVisibleRange;
+        boolean isValidVisibleRange = computeVisibleRange(stackScroll, range);
+        int frontMostVisibleIndex = range[0];
+        int backMostVisibleIndex = range[1];
+        transformsOut.setWindow(frontMostVisibleIndex, backMostVisibleIndex);
+        if (!isValidVisibleRange) return false;
+
+        for (int i = frontMostVisibleIndex; i >= backMostVisibleIndex; i--) {
+            getStackTransform(i, stackScroll, tmpTransform, null);
+            if (boundTranslationsToRect) {
+                tmpTransform.translationY = Math.min(tmpTransform.translationY, mViewRect.bottom);
+            }
+            transformsOut.set(i, tmpTransform);
+        }
+        return true;
+    }
+
+    /**
+     * Computes the range of visible tasks for the given stack scroll directly from the curve
+     * progress of the tasks, without walking the stack.  The front most visible index is written to
+     * visibleRangeOut[0] and the back most visible index to visibleRangeOut[1], or -1 for both if
+     * nothing is visible.
+     *
+     * This matches the visibility rules of getStackTransform(): a task is visible if its top is
+     * within the curve (0 <= p <= 1), and the first task past the top of the curve is still
+     * visible if the task in front of it has not yet reached the top.
+     */
+    public boolean computeVisibleRange(float stackScroll, int[] visibleRangeOut) {
+        int frontMostVisibleIndex = -1;
+        int backMostVisibleIndex = -1;
+        int taskCount = mTaskCount;
+        if (taskCount > 0 && (taskCount == 1 || mTaskProgressStep > 0)) {
+            // Find the front most task whose top is not below the bottom of the curve (p <= 1)
+            int front = taskCount - 1;
+            if (taskCount > 1) {
+                double frontIndex = Math.floor((1d + stackScroll - mTaskProgressBase) /
+                        mTaskProgressStep);
+                front = (int) Math.max(-1, Math.min(taskCount - 1, frontIndex));
+            }
+            // Correct for any rounding at the boundary
+            while (front + 1 < taskCount && getRelativeTaskProgress(front + 1, stackScroll) <= 1f) {
+                front++;
+            }
+            while (front >= 0 && getRelativeTaskProgress(front, stackScroll) > 1f) {
+                front--;
+            }
+
+            if (front >= 0) {
+                if (getRelativeTaskProgress(front, stackScroll) < 0f) {
+                    // Every task is past the top of the curve, only the front most task is shown
+                    if (front == taskCount - 1) {
+                        frontMostVisibleIndex = backMostVisibleIndex = front;
+                    }
+                } else {
+                    // Find the back most task whose top is still within the curve (p >= 0)
+                    int back = 0;
+                    if (taskCount > 1) {
+                        double backIndex = Math.ceil((stackScroll - mTaskProgressBase) /
+                                mTaskProgressStep);
+                        back = (int) Math.max(0, Math.min(front, backIndex));
+                    }
+                    while (back > 0 && getRelativeTaskProgress(back - 1, stackScroll) >= 0f) {
+                        back--;
+                    }
+                    while (back < front && getRelativeTaskProgress(back, stackScroll) < 0f) {
+                        back++;
+                    }
+                    // The task behind it is visible as long as this one is not at the very top
+                    if (back > 0 && Float.compare(getRelativeTaskProgress(back, stackScroll), 0f) > 0) {
+                        back--;
+                    }
+                    frontMostVisibleIndex = front;
+                    backMostVisibleIndex = back;
+                }
+            }
+        }
+        if (visibleRangeOut != null) {
+            visibleRangeOut[0] = frontMostVisibleIndex;
+            visibleRangeOut[1] = backMostVisibleIndex;
+        }
+        return frontMostVisibleIndex != -1 && backMostVisibleIndex != -1;
+    }
+
+    /**
+     * Update/get the transform
+     */
+    public StackTransform getStackTransform(int index, float stackScroll,
+                                            StackTransform transformOut,
+                                            StackTransform prevTransform) {
+        // Return early if we have an invalid index
+        if (index < 0 || index >= mTaskCount) {
+            transformOut.reset();
+            return transformOut;
+        }
+        return getStackTransform(getRelativeTaskProgress(index, stackScroll), 0f, transformOut,
+                prevTransform);
+    }
+
+    /**
+     * Update/get the transform
+     */
+    public StackTransform getStackTransform(float taskProgress, float stackScroll,
+                                            StackTransform transformOut,
+                                            StackTransform prevTransform) {
+        float pTaskRelative = taskProgress - stackScroll;
+        float pBounded = Math.max(0, Math.min(pTaskRelative, 1f));
+        // If the task top is outside of the bounds below the screen, then immediately reset it
+        if (pTaskRelative > 1f) {
+            transformOut.reset();
+            transformOut.rect.set(mTaskRect);
+            return transformOut;
+        }
+        // The check for the top is trickier, since we want to show the next task if it is at all
+        // visible, even if p < 0.
+        if (pTaskRelative < 0f) {
+            if (prevTransform != null && Float.compare(prevTransform.p, 0f) <= 0) {
+                transformOut.reset();
+                transformOut.rect.set(mTaskRect);
+                return transformOut;
+            }
+        }
+        float scale = curveProgressToScale(pBounded);
+        int scaleYOffset = (int) (((1f - scale) * mTaskRect.height()) / 2);
+        int minZ = mTranslationZMinPx;
+        int maxZ = mTranslationZMaxPx;
+        transformOut.scale = scale;
+        transformOut.translationY = curveProgressToScreenY(pBounded) - mStackVisibleRect.top -
+                scaleYOffset;
+        transformOut.translationZ = Math.max(minZ, minZ + (pBounded * (maxZ - minZ)));
+        transformOut.rect.set(mTaskRect);
+        transformOut.rect.offset(0, transformOut.translationY);
+        transformOut.rect.scaleAboutCenter(transformOut.scale);
+        transformOut.visible = true;
+        transformOut.p = pTaskRelative;
+        return transformOut;
+    }
+
+    /**
+     * Returns the translationY of the task at the given index for the given stack scroll, as
+     * getStackTransform() would compute it for a task within the visible range.
+     */
+    public int getTaskTranslationY(int index, float stackScroll) {
+        float pBounded = Math.max(0, Math.min(getRelativeTaskProgress(index, stackScroll), 1f));
+        float scale = curveProgressToScale(pBounded);
+        int scaleYOffset = (int) (((1f - scale) * mTaskRect.height()) / 2);
+        return curveProgressToScreenY(pBounded) - mStackVisibleRect.top - scaleYOffset;
+    }
+
+    /**
+     * Returns the index of the task within [backIndex, frontIndex] whose translationY is nearest
+     * to the given one, preferring the front most task on ties.  The translationY grows with the
+     * index, so the curve is inverted to find the crossing directly instead of walking the range.
+     */
+    public int getTaskIndexNearestTranslationY(float stackScroll, int translationY,
+                                               int frontIndex, int backIndex) {
+        if (frontIndex <= backIndex) return frontIndex;
+
+        // Invert the curve at the target, accounting for the scale offset at that progress
+        float p = screenYToCurveProgress(mStackVisibleRect.top + translationY);
+        int scaleYOffset = (int) (((1f - curveProgressToScale(p)) * mTaskRect.height()) / 2);
+        p = screenYToCurveProgress(mStackVisibleRect.top + translationY + scaleYOffset);
+        int index = frontIndex;
+        if (mTaskProgressStep > 0) {
+            double i = Math.floor((p + stackScroll - mTaskProgressBase) / mTaskProgressStep);
+            index = (int) Math.max(backIndex, Math.min(frontIndex, i));
+        }
+
+        // Correct for any rounding so that index is the front most task at or above the target
+        while (index < frontIndex && getTaskTranslationY(index + 1, stackScroll) <= translationY) {
+            index++;
+        }
+        while (index > backIndex && getTaskTranslationY(index, stackScroll) > translationY) {
+            index--;
+        }
+
+        // The nearest task is either this one or the one in front of it
+        if (index < frontIndex) {
+            int below = Math.abs(getTaskTranslationY(index + 1, stackScroll) - translationY);
+            int above = Math.abs(getTaskTranslationY(index, stackScroll) - translationY);
+            if (below <= above) {
+                index++;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns the scroll to such task top = 1f;
+     */
+    public float getStackScrollForTask(int index) {
+        if (index < 0 || index >= mTaskCount) return 0f;
+        return getTaskProgress(index);
+    }
+
+    /**
+     * Returns the curve progress of the top of the task at the given index.  The product is
+     * formed in double precision so that very large indices do not lose the peek offset.
+     */
+    public float getTaskProgress(int index) {
+        return (float) (mTaskProgressBase + (double) index * mTaskProgressStep);
+    }
+
+    /**
+     * Returns the curve progress of the task at the given index relative to the stack scroll.
+     * This is resolved in double precision, since deep stacks have large absolute progress.
+     */
+    public float getRelativeTaskProgress(int index, float stackScroll) {
+        return (float) (mTaskProgressBase + (double) index * mTaskProgressStep - stackScroll);
+    }
+
+    /**
+     * Returns the progress between two adjacent tasks.
+     */
+    public float getTaskProgressStep() {
+        return mTaskProgressStep;
+    }
+
+    /**
+     * Converts from the progress along the curve to a screen coordinate.
+     */
+    public int curveProgressToScreenY(float p) {
+        if (p < 0 || p > 1) return mStackVisibleRect.top + (int) (p * mStackVisibleRect.height());
+        float x = mCurveTable.progressToX(p);
+        return mStackVisibleRect.top + (int) (x * mStackVisibleRect.height());
+    }
+
+    /**
+     * Converts from the progress along the curve to a scale.
+     */
+    public float curveProgressToScale(float p) {
+        if (p < 0) return StackPeekMinScale;
+        if (p > 1) return 1f;
+        float scaleRange = (1f - StackPeekMinScale);
+        float scale = StackPeekMinScale + (p * scaleRange);
+        return scale;
+    }
+
+    /**
+     * Converts from a screen coordinate to the progress along the curve.
+     */
+    public float screenYToCurveProgress(int screenY) {
+        float x = (float) (screenY - mStackVisibleRect.top) / mStackVisibleRect.height();
+        if (x < 0 || x > 1) return x;
+        return mCurveTable.xToProgress(x);
+    }
+}
@@ -0,0 +1,93 @@
+package com.freeman.cardview.layout;
+
+/* Computes which part of each card is hidden by the cards in front of it, and the overdraw of the
+ * stack.
+ *
+ * Cards are added from the front most to the back most.  Each card that clips is hidden below the
+ * top of the content of the opaque card directly in front of it, which is only approximate since
+ * the stack assumes that each card is hidden below the one in front of it.  Cards behind a card
+ * that is translucent, or that does not clip, are not hidden at all.  The overdraw is the area the
+ * cards draw over the area of the stack that they cover, so 1 means that no pixel is drawn twice.
+ */
+public class StackOcclusion {
+
+    // The value returned for a card that is not hidden
+    public static final float NoClip = Float.MAX_VALUE;
+
+    float mFrontContentTop;
+    float mDrawnArea;
+    float mCoveredTop;
+    float mCoveredBottom;
+    float mCoveredWidth;
+
+    public StackOcclusion() {
+        reset();
+    }
+
+    /**
+     * Starts a new pass from the front of the stack.
+     */
+    public void reset() {
+        mFrontContentTop = NoClip;
+        mDrawnArea = 0f;
+        mCoveredTop = Float.MAX_VALUE;
+        mCoveredBottom = -Float.MAX_VALUE;
+        mCoveredWidth = 0f;
+    }
+
+    /**
+     * Adds the next card towards the back of the stack, given its drawn edges and the top of its
+     * content, and returns the y below which it is hidden, or NoClip.
+     */
+    public float addCard(float top, float bottom, float width, float contentTop, boolean clips,
+                         boolean opaque) {
+        float clipBottom;
+        if (clips) {
+            clipBottom = mFrontContentTop;
+            // Cards behind a translucent one stay visible through it
+            mFrontContentTop = opaque ? contentTop : NoClip;
+        } else {
+            clipBottom = NoClip;
+            mFrontContentTop = NoClip;
+        }
+
+        // Track the drawn and the covered areas for the overdraw
+        float drawnBottom = Math.min(bottom, clipBottom);
+        if (drawnBottom > top) {
+            mDrawnArea += (drawnBottom - top) * width;
+        }
+        mCoveredWidth = Math.max(mCoveredWidth, width);
+        mCoveredTop = Math.min(mCoveredTop, top);
+        mCoveredBottom = Math.max(mCoveredBottom, bottom);
+        return clipBottom;
+    }
+
+    /**
+     * Computes the occlusion of the visible cards in the buffer, whose content starts the given
+     * inset below their top before scaling.
+     */
+    public void computeOcclusion(StackTransformBuffer transforms, int contentInsetTop,
+                                 boolean clips) {
+        reset();
+        int backIndex = transforms.getBackIndex();
+        if (backIndex < 0) return;
+        for (int i = transforms.getFrontIndex(); i >= backIndex; i--) {
+            if (!transforms.isVisible(i)) continue;
+            float top = transforms.getRectTop(i);
+            addCard(top, transforms.getRectBottom(i),
+                    transforms.getRectRight(i) - transforms.getRectLeft(i),
+                    top + contentInsetTop * transforms.getScale(i), clips,
+                    transforms.getAlpha(i) >= 1f);
+        }
+    }
+
+    /**
+     * Returns the area drawn over the area covered by the cards added since the last reset, or 0
+     * if no card was added.
+     */
+    public float getOverdraw() {
+        float coveredArea = mCoveredBottom > mCoveredTop
+                ? (mCoveredBottom - mCoveredTop) * mCoveredWidth : 0f;
+        return coveredArea > 0f ? mDrawnArea / coveredArea : 0f;
+    }
+}
@@ -0,0 +1,93 @@
+package com.freeman.cardview.layout;
+
+/**
+ * A plain int rect used by the stack layout, so that the layout does not depend on the Android
+ * runtime. Mirrors the subset of android.graphics.Rect that the layout needs.
+ */
+public class StackRect {
+	public int left;
+	public int top;
+	public int right;
+	public int bottom;
+
+	public StackRect() {
+		// Do nothing
+	}
+
+	public StackRect(StackRect r) {
+		set(r);
+	}
+
+	public void set(int left, int top, int right, int bottom) {
+		this.left = left;
+		this.top = top;
+		this.right = right;
+		this.bottom = bottom;
+	}
+
+	public void set(StackRect r) {
+		set(r.left, r.top, r.right, r.bottom);
+	}
+
+	public void setEmpty() {
+		left = top = right = bottom = 0;
+	}
+
+	public int width() {
+		return right - left;
+	}
+
+	public int height() {
+		return bottom - top;
+	}
+
+	public int centerX() {
+		return (left + right) >> 1;
+	}
+
+	public int centerY() {
+		return (top + bottom) >> 1;
+	}
+
+	public void offset(int dx, int dy) {
+		left += dx;
+		top += dy;
+		right += dx;
+		bottom += dy;
+	}
+
+	public void offsetTo(int newLeft, int newTop) {
+		right += newLeft - left;
+		bottom += newTop - top;
+		left = newLeft;
+		top = newTop;
+	}
+
+	public void inset(int dx, int dy) {
+		left += dx;
+		top += dy;
+		right -= dx;
+		bottom -= dy;
+	}
+
+	/**
+	 * Scales this rect about its centroid
+	 */
+	public void scaleAboutCenter(float scale) {
+		if (scale != 1.0f) {
+			int cx = centerX();
+			int cy = centerY();
+			offset(-cx, -cy);
+			left = (int) (left * scale + 0.5f);
+			top = (int) (top * scale + 0.5f);
+			right = (int) (right * scale + 0.5f);
+			bottom = (int) (bottom * scale + 0.5f);
+			offset(cx, cy);
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "StackRect(" + left + ", " + top + " - " + right + ", " + bottom + ")";
+	}
+}
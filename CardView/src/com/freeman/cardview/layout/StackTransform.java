@@ -0,0 +1,37 @@
+package com.freeman.cardview.layout;
+
+/**
+ * The transform of a single task in the stack, as computed by the stack layout.
+ */
+public class StackTransform {
+	public int translationY = 0;
+	public float translationZ = 0;
+	public float scale = 1f;
+	public float alpha = 1f;
+	public boolean visible = false;
+	public StackRect rect = new StackRect();
+	public float p = 0f;
+
+	public StackTransform() {
+		// Do nothing
+	}
+
+	/**
+	 * Resets the current transform
+	 */
+	public void reset() {
+		translationY = 0;
+		translationZ = 0;
+		scale = 1f;
+		alpha = 1f;
+		visible = false;
+		rect.setEmpty();
+		p = 0f;
+	}
+
+	@Override
+	public String toString() {
+		return "StackTransform y: " + translationY + " z: " + translationZ + " scale: " + scale
+				+ " alpha: " + alpha + " visible: " + visible + " rect: " + rect + " p: " + p;
+	}
+}
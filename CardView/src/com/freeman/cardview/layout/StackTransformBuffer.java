@@ -0,0 +1,154 @@
+package com.freeman.cardview.layout;
+
+/**
+ * A reusable buffer of task transforms for a window of consecutive task indices. The transform
+ * properties are stored in parallel primitive arrays that are only ever grown, so filling the
+ * buffer each frame does not allocate once it has reached the size of the visible window.
+ */
+public class StackTransformBuffer {
+	int mFrontIndex = -1;
+	int mBackIndex = -1;
+	int mCapacity;
+
+	int[] mTranslationY = new int[0];
+	float[] mTranslationZ = new float[0];
+	float[] mScale = new float[0];
+	float[] mAlpha = new float[0];
+	float[] mP = new float[0];
+	boolean[] mVisible = new boolean[0];
+	int[] mRectLeft = new int[0];
+	int[] mRectTop = new int[0];
+	int[] mRectRight = new int[0];
+	int[] mRectBottom = new int[0];
+
+	public StackTransformBuffer() {
+		// Do nothing
+	}
+
+	/**
+	 * Resets the buffer to hold the transforms of the tasks between the back most and front most
+	 * indices, inclusive. Passing a negative index empties the buffer.
+	 */
+	public void setWindow(int frontIndex, int backIndex) {
+		if (frontIndex < 0 || backIndex < 0 || backIndex > frontIndex) {
+			mFrontIndex = mBackIndex = -1;
+			return;
+		}
+		mFrontIndex = frontIndex;
+		mBackIndex = backIndex;
+		ensureCapacity(frontIndex - backIndex + 1);
+	}
+
+	/**
+	 * Returns whether the transform of the task at the given index is held in this buffer.
+	 */
+	public boolean contains(int index) {
+		return mBackIndex >= 0 && mBackIndex <= index && index <= mFrontIndex;
+	}
+
+	public int getFrontIndex() {
+		return mFrontIndex;
+	}
+
+	public int getBackIndex() {
+		return mBackIndex;
+	}
+
+	/**
+	 * Stores the transform of the task at the given index.
+	 */
+	public void set(int index, StackTransform t) {
+		int i = index - mBackIndex;
+		mTranslationY[i] = t.translationY;
+		mTranslationZ[i] = t.translationZ;
+		mScale[i] = t.scale;
+		mAlpha[i] = t.alpha;
+		mP[i] = t.p;
+		mVisible[i] = t.visible;
+		mRectLeft[i] = t.rect.left;
+		mRectTop[i] = t.rect.top;
+		mRectRight[i] = t.rect.right;
+		mRectBottom[i] = t.rect.bottom;
+	}
+
+	/**
+	 * Copies the transform of the task at the given index into the given transform.
+	 */
+	public StackTransform get(int index, StackTransform out) {
+		int i = index - mBackIndex;
+		out.translationY = mTranslationY[i];
+		out.translationZ = mTranslationZ[i];
+		out.scale = mScale[i];
+		out.alpha = mAlpha[i];
+		out.p = mP[i];
+		out.visible = mVisible[i];
+		out.rect.set(mRectLeft[i], mRectTop[i], mRectRight[i], mRectBottom[i]);
+		return out;
+	}
+
+	/**
+	 * Convenience accessors for individual properties
+	 */
+	public int getTranslationY(int index) {
+		return mTranslationY[index - mBackIndex];
+	}
+
+	public void setTranslationY(int index, int translationY) {
+		mTranslationY[index - mBackIndex] = translationY;
+	}
+
+	public float getTranslationZ(int index) {
+		return mTranslationZ[index - mBackIndex];
+	}
+
+	public float getScale(int index) {
+		return mScale[index - mBackIndex];
+	}
+
+	public float getAlpha(int index) {
+		return mAlpha[index - mBackIndex];
+	}
+
+	public float getP(int index) {
+		return mP[index - mBackIndex];
+	}
+
+	public boolean isVisible(int index) {
+		return mVisible[index - mBackIndex];
+	}
+
+	public int getRectLeft(int index) {
+		return mRectLeft[index - mBackIndex];
+	}
+
+	public int getRectTop(int index) {
+		return mRectTop[index - mBackIndex];
+	}
+
+	public int getRectRight(int index) {
+		return mRectRight[index - mBackIndex];
+	}
+
+	public int getRectBottom(int index) {
+		return mRectBottom[index - mBackIndex];
+	}
+
+	/**
+	 * Grows the backing arrays to hold at least the given number of transforms.
+	 */
+	void ensureCapacity(int size) {
+		if (size <= mCapacity) return;
+		int capacity = Math.max(size, mCapacity * 2);
+		mTranslationY = new int[capacity];
+		mTranslationZ = new float[capacity];
+		mScale = new float[capacity];
+		mAlpha = new float[capacity];
+		mP = new float[capacity];
+		mVisible = new boolean[capacity];
+		mRectLeft = new int[capacity];
+		mRectTop = new int[capacity];
+		mRectRight = new int[capacity];
+		mRectBottom = new int[capacity];
+		mCapacity = capacity;
+	}
+}
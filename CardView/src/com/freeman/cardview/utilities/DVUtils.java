@@ -5,6 +5,7 @@ import java.lang.reflect.Method;
 import java.util.ArrayList;
 
 import android.animation.Animator;
+import android.animation.ValueAnimator;
 import android.annotation.TargetApi;
 import android.graphics.Color;
 import android.graphics.Matrix;
@@ -12,6 +13,7 @@ import android.graphics.Rect;
 import android.graphics.RectF;
 import android.os.Build;
 import android.view.View;
+import android.view.animation.Interpolator;
 
 import com.freeman.cardview.helpers.BusinessCardViewConfig;
 import com.freeman.cardview.helpers.ViewHelper;
@@ -199,6 +201,19 @@ public class DVUtils {
             animator.cancel();
         }
     }
+
+    /**
+     * Returns the fraction of a running animation, eased by the interpolator.  The animator must
+     * run without a start delay and with a linear interpolator, as ValueAnimator.getAnimatedFraction()
+     * is only available from API 12.
+     */
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    public static float getAnimatedFraction(ValueAnimator animator, Interpolator interpolator) {
+        long duration = animator.getDuration();
+        float fraction = duration > 0
+                ? Math.min(1f, Math.max(0f, (float) animator.getCurrentPlayTime() / duration)) : 1f;
+        return interpolator.getInterpolation(fraction);
+    }
     
     public static boolean isAboveLollipop(){
     	
@@ -0,0 +1,115 @@
+package com.freeman.cardview.utilities;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.SystemClock;
+import android.view.Choreographer;
+
+/**
+ * Coalesces work requested within a frame into a single callback on the next frame.  Frames are
+ * driven by the vsync Choreographer where it is available, and approximated with a handler at
+ * the default frame rate otherwise.  Scheduling is idempotent, so callers can request a frame on
+ * every change without doing any work twice.
+ */
+public class FrameScheduler {
+
+    // The frame interval used when there is no Choreographer
+    static final long FallbackFrameIntervalMs = 16;
+
+    /* The work to do once per frame */
+    public interface FrameCallback {
+        /**
+         * Called once per scheduled frame, with the frame time in the
+         * System.nanoTime() time base.
+         */
+        public void doFrame(long frameTimeNanos);
+    }
+
+    FrameCallback mCallback;
+    boolean mFrameScheduled;
+
+    // The vsync driven frame source
+    VsyncFrameSource mVsyncFrameSource;
+
+    // The handler driven frame source
+    Handler mHandler;
+    long mLastFrameTimeMs;
+    Runnable mFallbackFrameRunnable = new Runnable() {
+        @Override
+        public void run() {
+            mLastFrameTimeMs = SystemClock.uptimeMillis();
+            onFrame(System.nanoTime());
+        }
+    };
+
+    public FrameScheduler(FrameCallback callback) {
+        mCallback = callback;
+        if (DVUtils.isAboveSDKVersion(16)) {
+            mVsyncFrameSource = new VsyncFrameSource();
+        } else {
+            mHandler = new Handler();
+        }
+    }
+
+    /**
+     * Requests a callback on the next frame, if one is not already pending.
+     */
+    public void scheduleFrame() {
+        if (mFrameScheduled) return;
+        mFrameScheduled = true;
+        if (mVsyncFrameSource != null) {
+            mVsyncFrameSource.postFrame();
+        } else {
+            long sinceLastFrame = SystemClock.uptimeMillis() - mLastFrameTimeMs;
+            mHandler.postDelayed(mFallbackFrameRunnable,
+                    Math.max(0, FallbackFrameIntervalMs - sinceLastFrame));
+        }
+    }
+
+    /**
+     * Cancels the pending frame callback, if any.
+     */
+    public void cancelFrame() {
+        if (!mFrameScheduled) return;
+        mFrameScheduled = false;
+        if (mVsyncFrameSource != null) {
+            mVsyncFrameSource.removeFrame();
+        } else {
+            mHandler.removeCallbacks(mFallbackFrameRunnable);
+        }
+    }
+
+    /**
+     * Returns whether a frame callback is pending.
+     */
+    public boolean isFrameScheduled() {
+        return mFrameScheduled;
+    }
+
+    void onFrame(long frameTimeNanos) {
+        // Clear the flag first, so that the callback can schedule the following frame
+        mFrameScheduled = false;
+        mCallback.doFrame(frameTimeNanos);
+    }
+
+    /* Posts frame callbacks to the Choreographer, kept separate so that it is only loaded on
+     * platforms that have it */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    class VsyncFrameSource implements Choreographer.FrameCallback {
+        Choreographer mChoreographer = Choreographer.getInstance();
+
+        void postFrame() {
+            mChoreographer.postFrameCallback(this);
+        }
+
+        void removeFrame() {
+            mChoreographer.removeFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            onFrame(frameTimeNanos);
+        }
+    }
+}
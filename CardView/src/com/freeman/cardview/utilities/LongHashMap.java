@@ -0,0 +1,156 @@
+package com.freeman.cardview.utilities;
+
+/**
+ * A hash map from primitive longs to objects, for looking cards up by id without boxing the ids or
+ * calling into the equals() and hashCode() of the cards.  It uses open addressing with linear
+ * probing, and removes entries by shifting the following entries back, so that lookups never have
+ * to skip deleted slots.  Not thread safe.
+ */
+public class LongHashMap<V> {
+
+    static final int MinCapacity = 8;
+
+    long[] mKeys;
+    Object[] mValues;
+    boolean[] mUsed;
+    int mSize;
+    int mMask;
+
+    public LongHashMap() {
+        this(MinCapacity);
+    }
+
+    public LongHashMap(int expectedSize) {
+        // Keep the load factor at or below a half
+        int capacity = MinCapacity;
+        while (capacity < expectedSize * 2) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    void allocate(int capacity) {
+        mKeys = new long[capacity];
+        mValues = new Object[capacity];
+        mUsed = new boolean[capacity];
+        mMask = capacity - 1;
+    }
+
+    static int hash(long key) {
+        // Spread the bits, sequential ids are common
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    int slotOf(long key) {
+        int slot = hash(key) & mMask;
+        while (mUsed[slot]) {
+            if (mKeys[slot] == key) return slot;
+            slot = (slot + 1) & mMask;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the value for the key, or null if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int slot = slotOf(key);
+        return slot != -1 ? (V) mValues[slot] : null;
+    }
+
+    public boolean containsKey(long key) {
+        return slotOf(key) != -1;
+    }
+
+    /**
+     * Sets the value for the key, and returns the previous value, if any.
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        int slot = hash(key) & mMask;
+        while (mUsed[slot]) {
+            if (mKeys[slot] == key) {
+                V prev = (V) mValues[slot];
+                mValues[slot] = value;
+                return prev;
+            }
+            slot = (slot + 1) & mMask;
+        }
+        mUsed[slot] = true;
+        mKeys[slot] = key;
+        mValues[slot] = value;
+        mSize++;
+        if (mSize * 2 > mKeys.length) {
+            rehash(mKeys.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * Removes the value for the key, and returns it, if any.
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int slot = slotOf(key);
+        if (slot == -1) return null;
+        V prev = (V) mValues[slot];
+
+        // Shift back the entries that probed past the removed slot
+        int hole = slot;
+        int next = (hole + 1) & mMask;
+        while (mUsed[next]) {
+            int home = hash(mKeys[next]) & mMask;
+            // Move the entry if its home is not within (hole, next]
+            if (((next - home) & mMask) >= ((next - hole) & mMask)) {
+                mKeys[hole] = mKeys[next];
+                mValues[hole] = mValues[next];
+                hole = next;
+            }
+            next = (next + 1) & mMask;
+        }
+        mUsed[hole] = false;
+        mValues[hole] = null;
+        mSize--;
+        return prev;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    /**
+     * Removes all the entries, keeping the capacity.
+     */
+    public void clear() {
+        if (mSize == 0) return;
+        for (int i = 0; i < mUsed.length; i++) {
+            mUsed[i] = false;
+            mValues[i] = null;
+        }
+        mSize = 0;
+    }
+
+    void rehash(int capacity) {
+        long[] keys = mKeys;
+        Object[] values = mValues;
+        boolean[] used = mUsed;
+        allocate(capacity);
+        for (int i = 0; i < keys.length; i++) {
+            if (used[i]) {
+                int slot = hash(keys[i]) & mMask;
+                while (mUsed[slot]) {
+                    slot = (slot + 1) & mMask;
+                }
+                mUsed[slot] = true;
+                mKeys[slot] = keys[i];
+                mValues[slot] = values[i];
+            }
+        }
+    }
+}
@@ -6,11 +6,13 @@ import android.animation.ValueAnimator;
 import android.annotation.TargetApi;
 import android.content.Context;
 import android.graphics.Bitmap;
+import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.PorterDuff;
 import android.graphics.PorterDuffColorFilter;
 import android.graphics.Rect;
+import android.graphics.RectF;
 import android.graphics.drawable.Drawable;
 import android.os.Build;
 import android.util.AttributeSet;
@@ -22,7 +24,6 @@ import android.widget.FrameLayout;
 import android.widget.ImageView;
 import android.widget.TextView;
 
-import com.freeman.carddemo.DemoData;
 import com.freeman.cardview.R;
 import com.freeman.cardview.helpers.BusinessCardChildViewTransform;
 import com.freeman.cardview.helpers.BusinessCardViewConfig;
@@ -52,18 +53,41 @@ public class BusinessCardChildView<T> extends FrameLayout implements
 				boolean focused);
 	}
 
+	// The dim filters shared by all the task views, one for each dim level
+	static final int DimLevels = 256;
+	static final PorterDuffColorFilter[] sDimColorFilters = new PorterDuffColorFilter[DimLevels];
+
 	BusinessCardViewConfig mConfig;
 
 	float mTaskProgress;
-	ObjectAnimator mTaskProgressAnimator;
+	// A single animator per view drives the task progress from the setter,
+	// and is retargeted by updating the range below
+	ValueAnimator mTaskProgressAnimator;
+	float mTaskProgressAnimationFrom;
+	float mTaskProgressAnimationTo;
 	float mMaxDimScale;
 	int mDimAlpha;
 	AccelerateInterpolator mDimInterpolator = new AccelerateInterpolator(1f);
-	PorterDuffColorFilter mDimColorFilter = new PorterDuffColorFilter(0,
-			PorterDuff.Mode.SRC_ATOP);
 	Paint mDimLayerPaint = new Paint();
+	Paint mDimOverlayPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+	RectF mDimOverlayRect = new RectF();
+	// The dim level last applied to the content layer, or -1 if none was
+	int mLayerDimLevel = -1;
 
 	T mKey;
+	// The adapter position and id of the bound card, the position is kept up to date by the
+	// stack view as the data set changes
+	int mPosition = -1;
+	long mItemId = -1;
+	// Incremented whenever the card is bound or unbound, so that the payloads
+	// prepared for a previous card are not applied
+	int mBindGeneration;
+	// The pending thumbnail request of the bound card, if any
+	ThumbnailLoader<?>.Request mThumbnailRequest;
+	// The generation of the stack rects that this view was last measured against
+	int mMeasureGeneration = -1;
+	// The y in the stack view below which this view is hidden by the view in front of it
+	float mStackClipBottom = Float.MAX_VALUE;
 	boolean mTaskDataLoaded;
 	boolean mIsFocused;
 	boolean mFocusAnimationsEnabled;
@@ -134,6 +158,42 @@ public class BusinessCardChildView<T> extends FrameLayout implements
 		return mKey;
 	}
 
+	/**
+	 * Returns the view that holds the content of the card, for card binders
+	 */
+	public View getContentView() {
+		return mContent;
+	}
+
+	/**
+	 * Returns the thumbnail of the card, for card binders
+	 */
+	public ImageView getThumbnailView() {
+		return mThumbnailView;
+	}
+
+	/**
+	 * Returns the title of the card, for card binders
+	 */
+	public TextView getTitleView() {
+		return mTextView;
+	}
+
+	/**
+	 * Gets the adapter position of the task, or -1 if it is unbound or no longer in the
+	 * data set.
+	 */
+	int getAdapterPosition() {
+		return mPosition;
+	}
+
+	/**
+	 * Gets the adapter id of the task, this is kept while the view is in the pool.
+	 */
+	long getItemId() {
+		return mItemId;
+	}
+
 	/**
 	 * Returns the view bounds.
 	 */
@@ -194,17 +254,27 @@ public class BusinessCardChildView<T> extends FrameLayout implements
 			setTaskProgress(toTransform.p);
 		} else {
 			if (DVUtils.isAboveSDKVersion(11)) {
-				// Optimizations
-				ValueAnimator.AnimatorUpdateListener mUpdateDimListener = new ValueAnimator.AnimatorUpdateListener() {
-					@Override
-					public void onAnimationUpdate(ValueAnimator animation) {
-						setTaskProgress((Float) animation.getAnimatedValue());
-					}
-				};
-				mTaskProgressAnimator = ObjectAnimator.ofFloat(this,
-						"taskProgress", toTransform.p);
+				// Retarget the animator from the current progress, it calls
+				// setTaskProgress() directly, without property lookups or boxing
+				if (mTaskProgressAnimator == null) {
+					mTaskProgressAnimator = ValueAnimator.ofFloat(0f, 1f);
+					// Eased in the update listener
+					mTaskProgressAnimator.setInterpolator(null);
+					mTaskProgressAnimator.addUpdateListener(
+							new ValueAnimator.AnimatorUpdateListener() {
+						@Override
+						public void onAnimationUpdate(ValueAnimator animation) {
+							// Eased like the transform, so that the progress follows the card
+							float fraction = DVUtils.getAnimatedFraction(animation,
+									mConfig.fastOutSlowInInterpolator);
+							setTaskProgress(mTaskProgressAnimationFrom + fraction
+									* (mTaskProgressAnimationTo - mTaskProgressAnimationFrom));
+						}
+					});
+				}
+				mTaskProgressAnimationFrom = mTaskProgress;
+				mTaskProgressAnimationTo = toTransform.p;
 				mTaskProgressAnimator.setDuration(duration);
-				mTaskProgressAnimator.addUpdateListener(mUpdateDimListener);
 				mTaskProgressAnimator.start();
 			}
 		}
@@ -524,16 +594,23 @@ public class BusinessCardChildView<T> extends FrameLayout implements
 	 * Returns the current dim.
 	 */
 	public void setDim(int dim) {
+		int prevDim = mDimAlpha;
 		mDimAlpha = dim;
-		if (mConfig.useHardwareLayers) {
-			// Defer setting hardware layers if we have not yet measured, or
-			// there is no dim to draw
-			if (getMeasuredWidth() > 0 && getMeasuredHeight() > 0) {
-				mDimColorFilter = new PorterDuffColorFilter(Color.argb(
-						mDimAlpha, 0, 0, 0), PorterDuff.Mode.SRC_ATOP);
-				mDimLayerPaint.setColorFilter(mDimColorFilter);
+		if (mConfig.dimWithOverlay) {
+			// The dim is drawn over the content in dispatchDraw()
+			if (dim != prevDim) {
+				invalidate();
+			}
+		} else if (mConfig.useHardwareLayers) {
+			// Defer setting hardware layers if we have not yet measured, and
+			// only touch the layer when the dim level changes
+			int level = Math.max(0, Math.min(DimLevels - 1, dim));
+			if (level != mLayerDimLevel && getMeasuredWidth() > 0
+					&& getMeasuredHeight() > 0) {
+				mLayerDimLevel = level;
+				mDimLayerPaint.setColorFilter(getDimColorFilter(level));
 				if (DVUtils.isAboveSDKVersion(11)) {
-					mContent.setLayerType(LAYER_TYPE_HARDWARE, mDimLayerPaint);
+					applyDimLayerPaint();
 				}
 			}
 		} else {
@@ -544,6 +621,46 @@ public class BusinessCardChildView<T> extends FrameLayout implements
 		}
 	}
 
+	@Override
+	protected void dispatchDraw(Canvas canvas) {
+		super.dispatchDraw(canvas);
+		if (mConfig.dimWithOverlay && mDimAlpha > 0 && mContent != null) {
+			// Dim the content with a single translucent fill over it
+			mDimOverlayPaint.setColor(Color.argb(mDimAlpha, 0, 0, 0));
+			mDimOverlayRect.set(mContent.getLeft(), mContent.getTop(),
+					mContent.getRight(), mContent.getBottom());
+			float radius = mConfig.taskViewRoundedCornerRadiusPx;
+			canvas.drawRoundRect(mDimOverlayRect, radius, radius, mDimOverlayPaint);
+		}
+	}
+
+	/**
+	 * Returns the shared filter for the dim level, creating it on first use.
+	 */
+	static PorterDuffColorFilter getDimColorFilter(int level) {
+		PorterDuffColorFilter filter = sDimColorFilters[level];
+		if (filter == null) {
+			filter = new PorterDuffColorFilter(Color.argb(level, 0, 0, 0),
+					PorterDuff.Mode.SRC_ATOP);
+			sDimColorFilters[level] = filter;
+		}
+		return filter;
+	}
+
+	/**
+	 * Applies the dim paint to the content layer, updating the paint of the
+	 * existing layer where possible instead of setting up the layer again.
+	 */
+	@TargetApi(Build.VERSION_CODES.JELLY_BEAN_MR1)
+	void applyDimLayerPaint() {
+		if (DVUtils.isAboveSDKVersion(17)
+				&& mContent.getLayerType() == LAYER_TYPE_HARDWARE) {
+			mContent.setLayerPaint(mDimLayerPaint);
+		} else {
+			mContent.setLayerType(LAYER_TYPE_HARDWARE, mDimLayerPaint);
+		}
+	}
+
 	/**
 	 * Returns the current dim.
 	 */
@@ -676,6 +793,15 @@ public class BusinessCardChildView<T> extends FrameLayout implements
 		mKey = key;
 	}
 
+	/**
+	 * Binds this task view to the position and id of the task in the adapter
+	 */
+	void onTaskBound(T key, int position, long itemId) {
+		onTaskBound(key);
+		mPosition = position;
+		mItemId = itemId;
+	}
+
 	private boolean isBound() {
 		return mKey != null;
 	}
@@ -684,7 +810,17 @@ public class BusinessCardChildView<T> extends FrameLayout implements
 	 * Binds this task view to the task
 	 */
 	public void onTaskUnbound() {
+		cancelThumbnailRequest();
 		mKey = null;
+		mPosition = -1;
+	}
+
+	/** Cancels the pending thumbnail request of the bound card, if any */
+	void cancelThumbnailRequest() {
+		if (mThumbnailRequest != null) {
+			mThumbnailRequest.cancel();
+			mThumbnailRequest = null;
+		}
 	}
 
 	public Bitmap getThumbnail() {
@@ -698,7 +834,7 @@ public class BusinessCardChildView<T> extends FrameLayout implements
 
 	public void onDataLoaded(T key, Bitmap thumbnail, Drawable headerIcon,
 			String headerTitle, int headerBgColor) {
-		if (!isBound() || !mKey.equals(key))
+		if (!isBound() || mKey != key)
 			return;
 
 		if (mThumbnailView != null) {
@@ -708,15 +844,15 @@ public class BusinessCardChildView<T> extends FrameLayout implements
 			// mHeaderView.mApplicationIcon.setOnClickListener(this);
 			// mHeaderView.mDismissButton.setOnClickListener(this);
 		}
-		
-		DemoData test = (DemoData) key;
-		if(mTextView != null){
-			mTextView.setText(test.strDesc);
+
+		if (mTextView != null) {
+			mTextView.setText(headerTitle);
 		}
 		mTaskDataLoaded = true;
 	}
 
 	public void onDataUnloaded() {
+		cancelThumbnailRequest();
 		if (mThumbnailView != null) {
 			// Unbind each of the views from the task data and remove the task
 			// callback
@@ -726,6 +862,9 @@ public class BusinessCardChildView<T> extends FrameLayout implements
 			// mHeaderView.mApplicationIcon.setOnClickListener(null);
 			// mHeaderView.mDismissButton.setOnClickListener(null);
 		}
+		if (mTextView != null) {
+			mTextView.setText(null);
+		}
 		mTaskDataLoaded = false;
 	}
 
@@ -1,34 +1,40 @@
 package com.freeman.cardview.views;
 
 import java.lang.ref.WeakReference;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 
 import android.animation.ValueAnimator;
 import android.annotation.TargetApi;
 import android.content.Context;
-import android.graphics.Matrix;
+import android.graphics.Canvas;
 import android.graphics.Rect;
 import android.os.Build;
+import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.util.Log;
+import android.util.SparseArray;
 import android.view.LayoutInflater;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.accessibility.AccessibilityEvent;
+import android.view.accessibility.AccessibilityManager;
 import android.widget.FrameLayout;
 
 import com.freeman.cardview.R;
 import com.freeman.cardview.helpers.BusinessCardChildViewTransform;
 import com.freeman.cardview.helpers.BusinessCardViewConfig;
+import com.freeman.cardview.helpers.ViewHelper;
+import com.freeman.cardview.layout.StackOcclusion;
+import com.freeman.cardview.layout.StackTransformBuffer;
 import com.freeman.cardview.utilities.DVUtils;
 import com.freeman.cardview.utilities.DozeTrigger;
+import com.freeman.cardview.utilities.FrameScheduler;
+import com.freeman.cardview.utilities.LongHashMap;
 import com.freeman.cardview.utilities.ReferenceCountedTrigger;
 
 public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.TaskStackCallbacks,*/
         BusinessCardChildView.DeckChildViewCallbacks<T>, BusinessCardViewScroller.DeckViewScrollerCallbacks,
-        ViewPool.ViewPoolConsumer<BusinessCardChildView<T>, T> {
+        ViewPool.ViewPoolConsumer<BusinessCardChildView<T>>, FrameScheduler.FrameCallback {
 	public static final boolean EnableTaskStackClipping = true;
 
     BusinessCardViewConfig mConfig;
@@ -36,45 +42,109 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
     BusinessCardViewLayoutAlgorithm<T> mLayoutAlgorithm;
     BusinessCardViewScroller mStackScroller;
     BusinessCardViewTouchHandler mTouchHandler;
-    ViewPool<BusinessCardChildView<T>, T> mViewPool;
-    ArrayList<BusinessCardChildViewTransform> mCurrentTaskTransforms = new ArrayList<BusinessCardChildViewTransform>();
+    ViewPool<BusinessCardChildView<T>> mViewPool;
+    StackTransformBuffer mCurrentTaskTransforms = new StackTransformBuffer();
     DozeTrigger mUIDozeTrigger;
+    FrameScheduler mFrameScheduler;
     Rect mTaskStackBounds = new Rect();
+    // The inputs of the last measure that computed the stack rects, and the generation of those
+    // rects, so that a measure with the same inputs skips the recompute and the child remeasure
+    int mLastMeasureWidth = -1;
+    int mLastMeasureHeight = -1;
+    Rect mLastMeasureStackBounds = new Rect();
+    Rect mTmpStackBounds = new Rect();
+    int mMeasureGeneration;
     int mFocusedTaskIndex = -1;
     int mPrevAccessibilityFocusedIndex = -1;
+    // The range of tasks bound to views as of the last sync
+    int mVisibleFrontIndex = -1;
+    int mVisibleBackIndex = -1;
+    // The state reported by the last scroll accessibility event, to only report changes at the
+    // recommended rate
+    AccessibilityManager mAccessibilityManager;
+    long mLastAccessibilityScrollEventTime;
+    boolean mAccessibilityScrollEventPending;
+    int mLastAccessibilityFromIndex = -1;
+    int mLastAccessibilityToIndex = -1;
+    int mLastAccessibilityScrollY = -1;
+    Runnable mSendAccessibilityScrollEvent = new Runnable() {
+        @Override
+        public void run() {
+            mAccessibilityScrollEventPending = false;
+            sendAccessibilityScrollEvent();
+        }
+    };
 
     // Optimizations
     int mStackViewsAnimationDuration;
     boolean mStackViewsDirty = true;
     boolean mStackViewsClipDirty = true;
+    boolean mStackScrollDirty;
+    // The minimum interval between scroll accessibility events, the platform's recommended timeout
+    static final long AccessibilityScrollEventIntervalMs = 100;
     boolean mAwaitingFirstLayout = true;
     boolean mStartEnterAnimationRequestedAfterLayout;
     boolean mStartEnterAnimationCompleted;
     ViewAnimation.TaskViewEnterContext mStartEnterAnimationContext;
     int[] mTmpVisibleRange = new int[2];
-    float[] mTmpCoord = new float[2];
-    Matrix mTmpMatrix = new Matrix();
+    // The occlusion of the task views in the last frame
+    StackOcclusion mOcclusion = new StackOcclusion();
     Rect mTmpRect = new Rect();
     BusinessCardChildViewTransform mTmpTransform = new BusinessCardChildViewTransform();
-    HashMap<T, BusinessCardChildView<T>> mTmpTaskViewMap = new HashMap<T, BusinessCardChildView<T>>();
+    BusinessCardChildViewTransform mTmpStackTransform = new BusinessCardChildViewTransform();
+    int[] mTmpScrollOffsetRange = new int[2];
+    // The view currently bound to each adapter position.  The children keep their own positions
+    // up to date as the data set changes, so this is re-keyed from them
+    SparseArray<BusinessCardChildView<T>> mAttachedTaskViews = new SparseArray<BusinessCardChildView<T>>();
+    LongHashMap<BusinessCardChildView<T>> mTmpTaskViewsById = new LongHashMap<BusinessCardChildView<T>>();
+    // The nesting depth of batch updates, and the scroll of the front most task before the
+    // first change in the batch that changed the number of tasks
+    int mBatchUpdateDepth;
+    boolean mBatchTaskCountChanged;
+    float mBatchPrevAnchorTaskScroll;
+    // Forwards the changes made to the adapter
+    DeckAdapter.DataObserver mAdapterObserver = new DeckAdapter.DataObserver() {
+        @Override
+        public void onChanged() {
+            notifyDataSetChanged();
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            notifyItemRangeInserted(positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            notifyItemRangeRemoved(positionStart, itemCount);
+        }
+
+        @Override
+        public void onItemMoved(int fromPosition, int toPosition) {
+            notifyItemMoved(fromPosition, toPosition);
+        }
+
+        @Override
+        public void onItemRangeChanged(int positionStart, int itemCount) {
+            notifyItemRangeChanged(positionStart, itemCount);
+        }
+
+        @Override
+        public void onBeginBatchUpdate() {
+            beginBatchUpdate();
+        }
+
+        @Override
+        public void onEndBatchUpdate() {
+            endBatchUpdate();
+        }
+    };
+    // A convenience update listener to request updating clipping of tasks, shared by all the
+    // task animations so that syncing the stack does not allocate
+    ValueAnimator.AnimatorUpdateListener mRequestUpdateClippingListener;
+    // Updates the clipping while the task views animate, below API 19
+    ValueAnimator mClipUpdateAnimator;
     LayoutInflater mInflater;
-    
-    private float mPreScroll;
-    private static final int DELAY_MILLIS = 100;
-    private Runnable mScrollChecker = new Runnable() {
-		
-		@Override
-		public void run() {
-			float curScroll = mStackScroller.getStackScroll();
-            if (Float.compare(curScroll, mPreScroll) == 0) {
-            	mStackScroller.scrollToStickPosition();
-            } else {
-            	mPreScroll = mStackScroller.getStackScroll();  
-            	removeCallbacks(mScrollChecker);
-            	postDelayed(mScrollChecker, DELAY_MILLIS);
-            }
-		}
-	};
 
     public BusinessCardView(Context context) {
         this(context, null);
@@ -90,16 +160,26 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
         mConfig = BusinessCardViewConfig.getInstance();
     }
 
-    public void initialize(Callback<T> callback) {
+    public void initialize(DeckAdapter<T> adapter, CardBinder<T, ?> cardBinder,
+                           Callback<T> callback) {
+        if (mAdapter != null) {
+            mAdapter.unregisterDataObserver(mAdapterObserver);
+        }
+        mAdapter = adapter;
+        mAdapter.registerDataObserver(mAdapterObserver);
+        mCardBinder = cardBinder;
         mCallback = callback;
         requestLayout();
 
-        mViewPool = new ViewPool<BusinessCardChildView<T>, T>(getContext(), this);
+        mViewPool = new ViewPool<BusinessCardChildView<T>>(getContext(), this);
         mInflater = LayoutInflater.from(getContext());
         mLayoutAlgorithm = new BusinessCardViewLayoutAlgorithm<T>(mConfig);
         mStackScroller = new BusinessCardViewScroller(getContext(), mConfig, mLayoutAlgorithm);
         mStackScroller.setCallbacks(this);
         mTouchHandler = new BusinessCardViewTouchHandler(getContext(), this, mConfig, mStackScroller);
+        mFrameScheduler = new FrameScheduler(this);
+        mAccessibilityManager = (AccessibilityManager) getContext().getSystemService(
+                Context.ACCESSIBILITY_SERVICE);
 
         mUIDozeTrigger = new DozeTrigger(mConfig.taskBarDismissDozeDelaySeconds, new Runnable() {
             @Override
@@ -159,10 +239,8 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
     }
 
     void requestSynchronizeStackViewsWithModel(int duration) {
-        if (!mStackViewsDirty) {
-            invalidate();
-            mStackViewsDirty = true;
-        }
+        mStackViewsDirty = true;
+        scheduleFrame();
         if (mAwaitingFirstLayout) {
             // Skip the animation if we are awaiting first layout
             mStackViewsAnimationDuration = 0;
@@ -176,91 +254,450 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
      */
     void requestUpdateStackViewsClip() {
         if (!mStackViewsClipDirty) {
-            invalidate();
             mStackViewsClipDirty = true;
+            scheduleFrame();
+        }
+    }
+
+    /**
+     * Requests a frame to apply the pending scroll, data and clip changes.  All the changes made
+     * within a frame are applied together in doFrame().
+     */
+    void scheduleFrame() {
+        if (mFrameScheduler != null) {
+            mFrameScheduler.scheduleFrame();
+        }
+    }
+
+    /**
+     * Applies the scroll, data and clip changes made since the last frame in one pass.
+     */
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        // Wait for the first layout, which synchronizes the stack itself
+        if (mAwaitingFirstLayout) return;
+
+        // Advance any fling, this marks the scroll dirty as it moves.  The OverScroller reads its
+        // own animation clock and cannot be given the frame time, so frameTimeNanos is unused
+        boolean isScrolling = mStackScroller.computeScroll();
+        boolean scrollChanged = mStackScrollDirty;
+        if (scrollChanged) {
+            mStackScrollDirty = false;
+            mUIDozeTrigger.poke();
+        }
+
+        // Synchronize the views
+        synchronizeStackViewsWithModel();
+        if (mStackViewsClipDirty) {
+            clipTaskViews();
+        }
+
+        // Notify accessibility
+        if (scrollChanged) {
+            requestAccessibilityScrollEvent();
+        }
+
+        if (isScrolling) {
+            scheduleFrame();
         }
     }
 
     /**
-     * Finds the child view given a specific task.
+     * Sends a scroll accessibility event, no more often than the recommended interval.  Scroll
+     * changes within the interval are coalesced into one event at the end of it.
      */
-    public BusinessCardChildView getChildViewForTask(T key) {
+    void requestAccessibilityScrollEvent() {
+        if (mAccessibilityScrollEventPending) return;
+        if (mAccessibilityManager == null || !mAccessibilityManager.isEnabled()) return;
+
+        long sinceLastEvent = SystemClock.uptimeMillis() - mLastAccessibilityScrollEventTime;
+        if (sinceLastEvent >= AccessibilityScrollEventIntervalMs) {
+            sendAccessibilityScrollEvent();
+        } else {
+            mAccessibilityScrollEventPending = true;
+            postDelayed(mSendAccessibilityScrollEvent,
+                    AccessibilityScrollEventIntervalMs - sinceLastEvent);
+        }
+    }
+
+    /**
+     * Sends a scroll accessibility event if the visible range or the scroll changed since the last
+     * one.
+     */
+    void sendAccessibilityScrollEvent() {
+        int scrollY = mStackScroller.progressToScrollRange(mStackScroller.getStackScroll());
+        if (mVisibleBackIndex == mLastAccessibilityFromIndex
+                && mVisibleFrontIndex == mLastAccessibilityToIndex
+                && scrollY == mLastAccessibilityScrollY) {
+            return;
+        }
+        mLastAccessibilityFromIndex = mVisibleBackIndex;
+        mLastAccessibilityToIndex = mVisibleFrontIndex;
+        mLastAccessibilityScrollY = scrollY;
+        mLastAccessibilityScrollEventTime = SystemClock.uptimeMillis();
+        sendAccessibilityEvent(AccessibilityEvent.TYPE_VIEW_SCROLLED);
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        if (mStackViewsDirty || mStackViewsClipDirty || mStackScrollDirty) {
+            scheduleFrame();
+        }
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        if (mFrameScheduler != null) {
+            mFrameScheduler.cancelFrame();
+        }
+        removeCallbacks(mSendAccessibilityScrollEvent);
+        mAccessibilityScrollEventPending = false;
+        if (mClipUpdateAnimator != null) {
+            mClipUpdateAnimator.cancel();
+        }
+    }
+
+    /**
+     * Returns the shared update listener that updates the clipping of tasks as they animate.  The
+     * clipping is computed as the stack draws, and with hardware acceleration animating a task
+     * view does not redraw the stack, so the listener invalidates it directly, which keeps the
+     * clipping in the same frame as the transforms.
+     */
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    ValueAnimator.AnimatorUpdateListener getRequestUpdateClippingListener() {
+        if (mRequestUpdateClippingListener == null) {
+            mRequestUpdateClippingListener = new ValueAnimator.AnimatorUpdateListener() {
+                @Override
+                public void onAnimationUpdate(ValueAnimator animation) {
+                    invalidate();
+                }
+            };
+        }
+        return mRequestUpdateClippingListener;
+    }
+
+    /**
+     * Updates the clipping of tasks on every frame for the given time, for the API levels where
+     * the task view animations cannot take an update listener.  A running update is only ever
+     * extended.
+     */
+    @TargetApi(Build.VERSION_CODES.HONEYCOMB)
+    void animateClipUpdates(long duration) {
+        if (mClipUpdateAnimator == null) {
+            mClipUpdateAnimator = ValueAnimator.ofFloat(0f, 1f);
+            mClipUpdateAnimator.addUpdateListener(getRequestUpdateClippingListener());
+        }
+        if (mClipUpdateAnimator.isRunning()) {
+            long remaining = mClipUpdateAnimator.getDuration()
+                    - mClipUpdateAnimator.getCurrentPlayTime();
+            if (remaining >= duration) return;
+            mClipUpdateAnimator.cancel();
+        }
+        mClipUpdateAnimator.setDuration(duration);
+        mClipUpdateAnimator.start();
+    }
+
+    /**
+     * Finds the child view given a specific adapter position.
+     */
+    public BusinessCardChildView<T> getChildViewForPosition(int position) {
+        return mAttachedTaskViews.get(position);
+    }
+
+    /**
+     * Replaces the adapter that backs this stack, and lays out the new cards from the front of the
+     * stack.
+     */
+    public void setAdapter(DeckAdapter<T> adapter) {
+        if (adapter == mAdapter) return;
+        reset();
+        mAdapter.unregisterDataObserver(mAdapterObserver);
+        mAdapter = adapter;
+        mAdapter.registerDataObserver(mAdapterObserver);
+        requestLayout();
+    }
+
+    /**
+     * Returns the adapter that backs this stack.
+     */
+    public DeckAdapter<T> getAdapter() {
+        return mAdapter;
+    }
+
+    /**
+     * Re-keys the attached views by their current adapter positions.
+     */
+    void updateAttachedTaskViews() {
+        mAttachedTaskViews.clear();
         int childCount = getChildCount();
         for (int i = 0; i < childCount; i++) {
-            BusinessCardChildView tv = (BusinessCardChildView) getChildAt(i);
-            if (tv.getAttachedKey().equals(key)) {
-                return tv;
+            BusinessCardChildView<T> tv = (BusinessCardChildView<T>) getChildAt(i);
+            if (tv.getAdapterPosition() != -1) {
+                mAttachedTaskViews.put(tv.getAdapterPosition(), tv);
             }
         }
-        return null;
     }
 
     /**
-     * Returns the stack algorithm for this task stack.
+     * Updates the positions of the attached views after the whole data set changed.  With stable
+     * ids the views follow their cards, otherwise they stay at their positions.  Views whose card
+     * changed are rebound, and views whose card is gone are returned to the pool on the next sync.
      */
-    public BusinessCardViewLayoutAlgorithm getStackAlgorithm() {
-        return mLayoutAlgorithm;
+    void rebindAttachedTaskViews() {
+        int count = mAdapter.getCount();
+        int childCount = getChildCount();
+        if (mAdapter.hasStableIds()) {
+            // Find the new position of each attached card in a single pass over the data set
+            mTmpTaskViewsById.clear();
+            for (int i = 0; i < childCount; i++) {
+                BusinessCardChildView<T> tv = (BusinessCardChildView<T>) getChildAt(i);
+                if (tv.getAdapterPosition() != -1) {
+                    mTmpTaskViewsById.put(tv.getItemId(), tv);
+                    tv.mPosition = -1;
+                }
+            }
+            for (int i = 0; i < count && !mTmpTaskViewsById.isEmpty(); i++) {
+                BusinessCardChildView<T> tv = mTmpTaskViewsById.remove(mAdapter.getItemId(i));
+                if (tv != null) {
+                    rebindTaskView(tv, i, false);
+                }
+            }
+            mTmpTaskViewsById.clear();
+        } else {
+            for (int i = 0; i < childCount; i++) {
+                BusinessCardChildView<T> tv = (BusinessCardChildView<T>) getChildAt(i);
+                int position = tv.getAdapterPosition();
+                if (position >= count) {
+                    tv.mPosition = -1;
+                } else if (position != -1) {
+                    rebindTaskView(tv, position, false);
+                }
+            }
+        }
+        updateAttachedTaskViews();
+        restackAttachedTaskViews();
     }
 
     /**
-     * Gets the stack transforms of a list of tasks, and returns the visible range of tasks.
+     * Returns the stack scroll of the new front most task at the position that it had before the
+     * change, given that position, so that the stack can be offset to keep it in place.  Returns the
+     * scroll of the previous front most task if the position is -1, when the new front most task
+     * is new or unknown.  Must be called before the layout algorithm is updated.
      */
-    private boolean updateStackTransforms(ArrayList<BusinessCardChildViewTransform> taskTransforms,
-                                          ArrayList<T> data,
-                                          float stackScroll,
-                                          int[] visibleRangeOut,
-                                          boolean boundTranslationsToRect) {
-        int taskTransformCount = taskTransforms.size();
-        int taskCount = data.size();
-        int frontMostVisibleIndex = -1;
-        int backMostVisibleIndex = -1;
-
-        // We can reuse the task transforms where possible to reduce object allocation
-        if (taskTransformCount < taskCount) {
-            // If there are less transforms than tasks, then add as many transforms as necessary
-            for (int i = taskTransformCount; i < taskCount; i++) {
-                taskTransforms.add(new BusinessCardChildViewTransform());
+    float getPrevAnchorTaskScroll(int prevAnchorPosition) {
+        if (prevAnchorPosition < 0) {
+            prevAnchorPosition = mLayoutAlgorithm.mTaskCount - 1;
+        }
+        return mLayoutAlgorithm.getStackScrollForTask(prevAnchorPosition);
+    }
+
+    /**
+     * Returns the position that the card now at the given position had before the data set
+     * changed, if its view is still attached, or -1.  Must be called before the attached views are
+     * rebound.
+     */
+    int getPrevAttachedPosition(int position) {
+        boolean stableIds = mAdapter.hasStableIds();
+        long itemId = stableIds ? mAdapter.getItemId(position) : -1;
+        T item = stableIds ? null : mAdapter.getItem(position);
+        if (!stableIds && item == null) return -1;
+        int childCount = getChildCount();
+        for (int i = 0; i < childCount; i++) {
+            BusinessCardChildView<T> tv = (BusinessCardChildView<T>) getChildAt(i);
+            if (tv.getAdapterPosition() == -1) continue;
+            if (stableIds ? tv.getItemId() == itemId : tv.getAttachedKey() == item) {
+                return tv.getAdapterPosition();
             }
-        } else if (taskTransformCount > taskCount) {
-            // If there are more transforms than tasks, then just subset the transform list
-            taskTransforms.subList(0, taskCount);
-        }
-
-        // Update the stack transforms
-        BusinessCardChildViewTransform prevTransform = null;
-        for (int i = taskCount - 1; i >= 0; i--) {
-            BusinessCardChildViewTransform transform =
-                    mLayoutAlgorithm.getStackTransform(data.get(i),
-                            stackScroll, taskTransforms.get(i), prevTransform);
-            if (transform.visible) {
-                if (frontMostVisibleIndex < 0) {
-                    frontMostVisibleIndex = i;
-                }
-                backMostVisibleIndex = i;
-            } else {
-                if (backMostVisibleIndex != -1) {
-                    // We've reached the end of the visible range, so going down the rest of the
-                    // stack, we can just reset the transforms accordingly
-                    while (i >= 0) {
-                        taskTransforms.get(i).reset();
-                        i--;
+        }
+        return -1;
+    }
+
+    /**
+     * Binds an attached view to the card at the given position, reloading its data if the card
+     * changed or if the reload is forced.  With stable ids cards are compared by id, so a new
+     * object for the same card only replaces the key of the view, otherwise they are compared by
+     * identity, never with equals().  Changes to a card must be notified with notifyItemChanged().
+     */
+    void rebindTaskView(BusinessCardChildView<T> tv, int position, boolean forceReload) {
+        T item = mAdapter.getItem(position);
+        long itemId = mAdapter.getItemId(position);
+        T prevItem = tv.getAttachedKey();
+        boolean sameCard;
+        if (mAdapter.hasStableIds()) {
+            // Placeholders have no card yet, so they are never the same card
+            sameCard = prevItem != null && item != null && tv.getItemId() == itemId;
+        } else {
+            sameCard = prevItem == item;
+        }
+        tv.onTaskBound(item, position, itemId);
+        if (forceReload || !sameCard) {
+            unbindTaskView(tv, prevItem);
+            bindTaskView(tv, item);
+        }
+    }
+
+    /**
+     * Points the attached views at the current objects of their cards, without reloading them.
+     * The positions of the views are up to date after the notifications of a batch, and any card
+     * that changed was rebound, so a different object at the position of a view is a new snapshot
+     * of the same card.
+     */
+    void refreshAttachedTaskViewKeys() {
+        for (int i = mAttachedTaskViews.size() - 1; i >= 0; i--) {
+            int position = mAttachedTaskViews.keyAt(i);
+            BusinessCardChildView<T> tv = mAttachedTaskViews.valueAt(i);
+            T prevItem = tv.getAttachedKey();
+            if (prevItem == null) continue;
+            T item = mAdapter.getItem(position);
+            if (item != null && item != prevItem) {
+                tv.onTaskBound(item, position, mAdapter.getItemId(position));
+            }
+        }
+    }
+
+    /**
+     * Binds the card to the view through the card binder, and prepares its payload in the
+     * background if it has one.  A null card is a placeholder that is not loaded yet, the view is
+     * left empty until it is.
+     */
+    void bindTaskView(BusinessCardChildView<T> tv, T item) {
+        // Drop the payloads that are still being prepared for the previous card
+        tv.mBindGeneration++;
+        if (item == null) return;
+
+        mCardBinder.onBind(tv, item);
+        if (mCardBinder.hasPayload(item)) {
+            preparePayload(mCardBinder, tv, item);
+        }
+    }
+
+    <P> void preparePayload(final CardBinder<T, P> binder, BusinessCardChildView<T> tv,
+                            final T item) {
+        final int bindGeneration = tv.mBindGeneration;
+        final WeakReference<BusinessCardChildView<T>> viewRef =
+                new WeakReference<BusinessCardChildView<T>>(tv);
+        binder.getPayloadExecutor().execute(new Runnable() {
+            @Override
+            public void run() {
+                final P payload = binder.preparePayload(item);
+                post(new Runnable() {
+                    @Override
+                    public void run() {
+                        // Only apply the payload if the view was not rebound or unbound since,
+                        // its key may have been refreshed to a new object of the same card
+                        BusinessCardChildView<T> view = viewRef.get();
+                        if (view != null && view.mBindGeneration == bindGeneration
+                                && binder == mCardBinder) {
+                            binder.onApplyPayload(view, item, payload);
+                        }
                     }
-                    break;
-                }
+                });
             }
+        });
+    }
+
+    /**
+     * Releases the card bound to the view, and cancels the application of its payload.
+     */
+    void unbindTaskView(BusinessCardChildView<T> tv, T item) {
+        tv.mBindGeneration++;
+        if (item != null) {
+            mCardBinder.onUnbind(tv, item);
+        }
+        tv.onDataUnloaded();
+    }
 
-            if (boundTranslationsToRect) {
-                transform.translationY = Math.min(transform.translationY,
-                        mLayoutAlgorithm.mViewRect.bottom);
+    /**
+     * Offsets the positions of the attached views after a range of cards was inserted or
+     * removed.  Views of removed cards lose their position, and are returned to the pool on the
+     * next sync.
+     */
+    void offsetAttachedTaskViewPositions(int positionStart, int itemCount, boolean removed) {
+        int childCount = getChildCount();
+        for (int i = 0; i < childCount; i++) {
+            BusinessCardChildView<T> tv = (BusinessCardChildView<T>) getChildAt(i);
+            int position = tv.getAdapterPosition();
+            if (position < positionStart) {
+                continue;
+            }
+            if (!removed) {
+                tv.mPosition = position + itemCount;
+            } else if (position < positionStart + itemCount) {
+                tv.mPosition = -1;
+            } else {
+                tv.mPosition = position - itemCount;
             }
-            prevTransform = transform;
         }
-        if (visibleRangeOut != null) {
-            visibleRangeOut[0] = frontMostVisibleIndex;
-            visibleRangeOut[1] = backMostVisibleIndex;
+        updateAttachedTaskViews();
+    }
+
+    /**
+     * Updates the positions of the attached views after a card was moved.
+     */
+    void moveAttachedTaskViewPosition(int fromPosition, int toPosition) {
+        int childCount = getChildCount();
+        for (int i = 0; i < childCount; i++) {
+            BusinessCardChildView<T> tv = (BusinessCardChildView<T>) getChildAt(i);
+            int position = tv.getAdapterPosition();
+            if (position == -1) {
+                continue;
+            }
+            if (position == fromPosition) {
+                tv.mPosition = toPosition;
+            } else if (fromPosition < toPosition && position > fromPosition
+                    && position <= toPosition) {
+                tv.mPosition = position - 1;
+            } else if (toPosition < fromPosition && position >= toPosition
+                    && position < fromPosition) {
+                tv.mPosition = position + 1;
+            }
         }
-        
-        return frontMostVisibleIndex != -1 && backMostVisibleIndex != -1;
+        updateAttachedTaskViews();
+        restackAttachedTaskViews();
+    }
+
+    /**
+     * Reorders the children so that their drawing order follows their adapter positions again,
+     * after cards were moved.  Views without a position sort to the back, they are returned to
+     * the pool on the next sync.
+     */
+    void restackAttachedTaskViews() {
+        // An insertion sort, since at most a few children are out of order
+        boolean restacked = false;
+        int childCount = getChildCount();
+        for (int i = 1; i < childCount; i++) {
+            BusinessCardChildView<T> tv = (BusinessCardChildView<T>) getChildAt(i);
+            int position = tv.getAdapterPosition();
+            int insertIndex = i;
+            while (insertIndex > 0 && position < ((BusinessCardChildView<T>)
+                    getChildAt(insertIndex - 1)).getAdapterPosition()) {
+                insertIndex--;
+            }
+            if (insertIndex != i) {
+                detachViewFromParent(i);
+                attachViewToParent(tv, insertIndex, tv.getLayoutParams());
+                restacked = true;
+            }
+        }
+        if (restacked) {
+            requestUpdateStackViewsClip();
+            invalidate();
+        }
+    }
+
+    /**
+     * Gets the stack transforms of the visible tasks into the given buffer, and returns the visible
+     * range of tasks.
+     */
+    private boolean updateStackTransforms(StackTransformBuffer taskTransforms,
+                                          float stackScroll,
+                                          int[] visibleRangeOut,
+                                          boolean boundTranslationsToRect) {
+        // Find the visible range directly, and only compute the transforms within it
+        return mLayoutAlgorithm.computeStackTransforms(stackScroll, taskTransforms,
+                visibleRangeOut, boundTranslationsToRect);
     }
 
     /**
@@ -269,36 +706,31 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
     boolean synchronizeStackViewsWithModel() {
         if (mStackViewsDirty) {
             // Get all the task transforms
-            ArrayList<T> data = mCallback.getData();
             float stackScroll = mStackScroller.getStackScroll();
             int[] visibleRange = mTmpVisibleRange;
             boolean isValidVisibleRange = updateStackTransforms(mCurrentTaskTransforms,
-                    data, stackScroll, visibleRange, false);
+                    stackScroll, visibleRange, false);
 
             // Return all the invisible children to the pool
-            mTmpTaskViewMap.clear();
             int childCount = getChildCount();
             for (int i = childCount - 1; i >= 0; i--) {
                 BusinessCardChildView<T> tv = (BusinessCardChildView) getChildAt(i);
-                T key = tv.getAttachedKey();
-                int taskIndex = data.indexOf(key);
+                int taskIndex = tv.getAdapterPosition();
 
-                if (visibleRange[1] <= taskIndex
-                        && taskIndex <= visibleRange[0]) {
-                    mTmpTaskViewMap.put(key, tv);
-                } else {
+                if (!(isValidVisibleRange && visibleRange[1] <= taskIndex
+                        && taskIndex <= visibleRange[0])) {
                     mViewPool.returnViewToPool(tv);
                 }
             }
 
             for (int i = visibleRange[0]; isValidVisibleRange && i >= visibleRange[1]; i--) {
-                T key = data.get(i);
-                BusinessCardChildViewTransform transform = mCurrentTaskTransforms.get(i);
-                BusinessCardChildView tv = mTmpTaskViewMap.get(key);
+                BusinessCardChildViewTransform transform = mTmpStackTransform.set(
+                        mCurrentTaskTransforms, i);
+                BusinessCardChildView tv = mAttachedTaskViews.get(i);
 
                 if (tv == null) {
-                    // TODO Check
-                    tv = mViewPool.pickUpViewFromPool(key, key);
+                    // Prefer the view that was last bound to this card
+                    tv = mViewPool.pickUpViewFromPool(mAdapter.getItemId(i), i);
 
                     if (mStackViewsAnimationDuration > 0) {
                         // For items in the list, put them in start animating them from the
@@ -313,23 +745,22 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
                 }
 
                 if(DVUtils.isAboveSDKVersion(11)){
-	                // A convenience update listener to request updating clipping of tasks
-	                ValueAnimator.AnimatorUpdateListener mRequestUpdateClippingListener =
-	                        new ValueAnimator.AnimatorUpdateListener() {
-	                            @Override
-	                            public void onAnimationUpdate(ValueAnimator animation) {
-	                                requestUpdateStackViewsClip();
-	                            }
-	                        };
 	                // Animate the task into place
-	                tv.updateViewPropertiesToTaskTransform(mCurrentTaskTransforms.get(i),
-	                        mStackViewsAnimationDuration, mRequestUpdateClippingListener);
+	                tv.updateViewPropertiesToTaskTransform(transform,
+	                        mStackViewsAnimationDuration, getRequestUpdateClippingListener());
+	                if (mStackViewsAnimationDuration > 0 && !DVUtils.isAboveSDKVersion(19)) {
+	                    animateClipUpdates(transform.startDelay + mStackViewsAnimationDuration);
+	                }
                 }else{
-                	tv.updateViewPropertiesToTaskTransform(mCurrentTaskTransforms.get(i),
+                	tv.updateViewPropertiesToTaskTransform(transform,
 	                        mStackViewsAnimationDuration, null);
                 }
             }
 
+            // Cache the range of tasks bound to views
+            mVisibleFrontIndex = isValidVisibleRange ? visibleRange[0] : -1;
+            mVisibleBackIndex = isValidVisibleRange ? visibleRange[1] : -1;
+
             // Reset the request-synchronize params
             mStackViewsAnimationDuration = 0;
             mStackViewsDirty = false;
@@ -340,58 +771,72 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
     }
 
     /**
-     * Updates the clip for each of the task views.
+     * Updates the clip for each of the task views.  The clip itself is computed from the live
+     * transforms of the children whenever the stack is drawn, see dispatchDraw(), so that it also
+     * follows the task animations, this only requests that redraw.
      */
     void clipTaskViews() {
-        // Update the clip on each task child
         if (EnableTaskStackClipping) {
-            int childCount = getChildCount();
-            for (int i = 0; i < childCount - 1; i++) {
-                BusinessCardChildView<?> tv = (BusinessCardChildView<?>) getChildAt(i);
-                BusinessCardChildView<?> nextTv = null;
-                BusinessCardChildView<?> tmpTv = null;
-                int clipBottom = 0;
-                if (tv.shouldClipViewInStack()) {
-                    // Find the next view to clip against
-                    int nextIndex = i;
-                    while (nextIndex < getChildCount()) {
-                        tmpTv = (BusinessCardChildView<?>) getChildAt(++nextIndex);
-                        if (tmpTv != null && tmpTv.shouldClipViewInStack()) {
-                            nextTv = tmpTv;
-                            break;
-                        }
-                    }
+            invalidate();
+        }
+        mStackViewsClipDirty = false;
+    }
 
-                    // Clip against the next view, this is just an approximation since we are
-                    // stacked and we can make assumptions about the visibility of the this
-                    // task relative to the ones in front of it.
-                    if (nextTv != null) {
-                        // Map the top edge of next task view into the local space of the current
-                        // task view to find the clip amount in local space
-                        mTmpCoord[0] = mTmpCoord[1] = 0;
-                        DVUtils.mapCoordInDescendentToSelf(nextTv, this, mTmpCoord, false);
-                        DVUtils.mapCoordInSelfToDescendent(tv, this, mTmpCoord, mTmpMatrix);
-                        clipBottom = (int) Math.floor(tv.getMeasuredHeight() - mTmpCoord[1]
-                                - nextTv.getPaddingTop() - 1);
-                    }
-                }
-                
-                // clip only for sdk 21
-                if(DVUtils.isAboveLollipop()){
-//                	tv.getViewBounds().setClipBottom(clipBottom);
-                }
-            }
-            if (getChildCount() > 0) {
-                // The front most task should never be clipped
-                BusinessCardChildView<?> tv = (BusinessCardChildView<?>) getChildAt(getChildCount() - 1);
-                
-                // clip only for sdk 21
-                if(DVUtils.isAboveLollipop()){
-//                	tv.getViewBounds().setClipBottom(0);
-                }
+    /**
+     * Computes, for each task view, the y in this view below which it is hidden by the opaque task
+     * view in front of it.
+     */
+    void updateTaskViewOcclusion() {
+        mOcclusion.reset();
+        int childCount = getChildCount();
+        for (int i = childCount - 1; i >= 0; i--) {
+            BusinessCardChildView<?> tv = (BusinessCardChildView<?>) getChildAt(i);
+            if (tv.getVisibility() != View.VISIBLE) {
+                tv.mStackClipBottom = StackOcclusion.NoClip;
+                continue;
             }
+
+            // Map the edges of the task view into this view directly from its transform, which
+            // may be animating away from the transform that the layout computed for it
+            float scale = ViewHelper.getScaleY(tv);
+            float pivotY = ViewHelper.getPivotY(tv);
+            float top = tv.getTop() + ViewHelper.getTranslationY(tv) + pivotY * (1f - scale);
+            float bottom = top + tv.getHeight() * scale;
+            tv.mStackClipBottom = mOcclusion.addCard(top, bottom,
+                    tv.getWidth() * ViewHelper.getScaleX(tv), top + tv.getPaddingTop() * scale,
+                    EnableTaskStackClipping && tv.shouldClipViewInStack(),
+                    ViewHelper.getAlpha(tv) >= 1f);
         }
-        mStackViewsClipDirty = false;
+    }
+
+    /**
+     * Returns the overdraw of the task views in the last drawn frame, as the area that they drew
+     * over the area of the stack that they cover, so 1 means that no pixel was drawn twice.
+     * Returns 0 if no task view was drawn.
+     */
+    public float getLastFrameOverdraw() {
+        return mOcclusion.getOverdraw();
+    }
+
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        updateTaskViewOcclusion();
+        super.dispatchDraw(canvas);
+    }
+
+    @Override
+    protected boolean drawChild(Canvas canvas, View child, long drawingTime) {
+        float clipBottom = ((BusinessCardChildView<?>) child).mStackClipBottom;
+        if (clipBottom == StackOcclusion.NoClip) {
+            return super.drawChild(canvas, child, drawingTime);
+        }
+
+        // Only draw the part of the task view that is not hidden by the one in front of it
+        int saveCount = canvas.save();
+        canvas.clipRect(0, 0, getWidth(), clipBottom);
+        boolean more = super.drawChild(canvas, child, drawingTime);
+        canvas.restoreToCount(saveCount);
+        return more;
     }
 
     /**
@@ -407,7 +852,8 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
     void updateMinMaxScroll(boolean boundScrollToNewMinMax, boolean launchedWithAltTab,
                             boolean launchedFromHome) {
         // Compute the min and max scroll values
-        mLayoutAlgorithm.computeMinMaxScroll(mCallback.getData(), launchedWithAltTab, launchedFromHome);
+        mLayoutAlgorithm.computeMinMaxScroll(mAdapter.getCount(), launchedWithAltTab,
+                launchedFromHome);
 
         // Debug logging
         if (boundScrollToNewMinMax) {
@@ -429,14 +875,11 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
         // Return early if the task is already focused
         if (childIndex == mFocusedTaskIndex) return;
 
-        ArrayList<T> data = mCallback.getData();
-
-        if (0 <= childIndex && childIndex < data.size()) {
+        if (0 <= childIndex && childIndex < mAdapter.getCount()) {
             mFocusedTaskIndex = childIndex;
 
             // Focus the view if possible, otherwise, focus the view after we scroll into position
-            T key = data.get(childIndex);
-            BusinessCardChildView tv = getChildViewForTask(key);
+            BusinessCardChildView tv = getChildViewForPosition(childIndex);
             Runnable postScrollRunnable = null;
             if (tv != null) {
                 tv.setFocusedTask(animateFocusedState);
@@ -445,7 +888,7 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
                     @Override
                     public void run() {
 
-                        BusinessCardChildView tv = getChildViewForTask(mCallback.getData().get(mFocusedTaskIndex));
+                        BusinessCardChildView tv = getChildViewForPosition(mFocusedTaskIndex);
                         if (tv != null) {
                             tv.setFocusedTask(animateFocusedState);
                         }
@@ -455,7 +898,7 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
 
             // Scroll the view into position (just center it in the curve)
             if (scrollToNewPosition) {
-                float newScroll = mLayoutAlgorithm.getStackScrollForTask(key) - 0.5f;
+                float newScroll = mLayoutAlgorithm.getStackScrollForTask(childIndex) - 0.5f;
                 newScroll = mStackScroller.getBoundedStackScroll(newScroll);
                 mStackScroller.animateScroll(mStackScroller.getStackScroll(), newScroll, postScrollRunnable);
             } else {
@@ -503,7 +946,7 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
      */
     public void focusNextTask(boolean forward, boolean animateFocusedState) {
         // Find the next index to focus
-        int numTasks = mCallback.getData().size();
+        int numTasks = mAdapter.getCount();
         if (numTasks == 0) return;
 
         int direction = (forward ? -1 : 1);
@@ -519,23 +962,23 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
      */
     public void dismissFocusedTask() {
         // Return early if the focused task index is invalid
-        if (mFocusedTaskIndex < 0 || mFocusedTaskIndex >= mCallback.getData().size()) {
+        if (mFocusedTaskIndex < 0 || mFocusedTaskIndex >= mAdapter.getCount()) {
             mFocusedTaskIndex = -1;
             return;
         }
 
-        //Long id = mAdapter.getItemId(mFocusedTaskIndex);
-        T key = mCallback.getData().get(mFocusedTaskIndex);
-        BusinessCardChildView tv = getChildViewForTask(key);
-        tv.dismissTask();
+        BusinessCardChildView tv = getChildViewForPosition(mFocusedTaskIndex);
+        if (tv != null) {
+            tv.dismissTask();
+        }
     }
 
     /**
      * Resets the focused task.
      */
     void resetFocusedTask() {
-        if ((0 <= mFocusedTaskIndex) && (mFocusedTaskIndex < mCallback.getData().size())) {
-            BusinessCardChildView tv = getChildViewForTask(mCallback.getData().get(mFocusedTaskIndex));
+        if ((0 <= mFocusedTaskIndex) && (mFocusedTaskIndex < mAdapter.getCount())) {
+            BusinessCardChildView tv = getChildViewForPosition(mFocusedTaskIndex);
             if (tv != null) {
                 tv.unsetFocusedTask();
             }
@@ -543,20 +986,17 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
         mFocusedTaskIndex = -1;
     }
 
-    @SuppressWarnings("unchecked")
 	@TargetApi(Build.VERSION_CODES.ICE_CREAM_SANDWICH)
     @Override
     public void onInitializeAccessibilityEvent(AccessibilityEvent event) {
         super.onInitializeAccessibilityEvent(event);
-        int childCount = getChildCount();
-        if (childCount > 0) {
-            BusinessCardChildView<T> backMostTask = (BusinessCardChildView<T>) getChildAt(0);
-            BusinessCardChildView<T> frontMostTask = (BusinessCardChildView<T>) getChildAt(childCount - 1);
-            event.setFromIndex(mCallback.getData().indexOf(backMostTask.getAttachedKey()));
-            event.setToIndex(mCallback.getData().indexOf(frontMostTask.getAttachedKey()));
-        }
-        event.setItemCount(mCallback.getData().size());
-        event.setScrollY(mStackScroller.mScroller.getCurrY());
+        // The range bound to views is cached by the sync pass
+        if (getChildCount() > 0 && mVisibleFrontIndex != -1) {
+            event.setFromIndex(mVisibleBackIndex);
+            event.setToIndex(mVisibleFrontIndex);
+        }
+        event.setItemCount(mLayoutAlgorithm.mTaskCount);
+        event.setScrollY(mStackScroller.progressToScrollRange(mStackScroller.getStackScroll()));
         event.setMaxScrollY(mStackScroller.progressToScrollRange(mLayoutAlgorithm.mMaxScrollP));
     }
 
@@ -575,16 +1015,6 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
         return mTouchHandler.onGenericMotionEvent(ev);
     }
 
-    @Override
-    public void computeScroll() {
-        mStackScroller.computeScroll();
-        // Synchronize the views
-        synchronizeStackViewsWithModel();
-        clipTaskViews();
-        // Notify accessibility
-        sendAccessibilityEvent(AccessibilityEvent.TYPE_VIEW_SCROLLED);
-    }
-
     /**
      * Computes the stack and task rects
      */
@@ -604,7 +1034,7 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
         BusinessCardChildView<T> frontMostChild = (BusinessCardChildView) getChildAt(getChildCount() / 2);
 
         if (frontMostChild != null) {
-            return mCallback.getData().indexOf(frontMostChild.getAttachedKey());
+            return frontMostChild.getAdapterPosition();
         }
 
         return -1;
@@ -617,10 +1047,9 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
         if (getCurrentChildIndex() == childIndex)
             return;
 
-        if (0 <= childIndex && childIndex < mCallback.getData().size()) {
+        if (0 <= childIndex && childIndex < mAdapter.getCount()) {
             // Scroll the view into position (just center it in the curve)
-            float newScroll = mLayoutAlgorithm.getStackScrollForTask(
-                    mCallback.getData().get(childIndex)) - 0.5f;
+            float newScroll = mLayoutAlgorithm.getStackScrollForTask(childIndex) - 0.5f;
             newScroll = mStackScroller.getBoundedStackScroll(newScroll);
             mStackScroller.setStackScroll(newScroll);
             //Alternate (animated) way
@@ -633,7 +1062,7 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
      * updateMinMaxScrollForStack() is called first.
      */
     public BusinessCardViewLayoutAlgorithm.VisibilityReport computeStackVisibilityReport() {
-        return mLayoutAlgorithm.computeStackVisibilityReport(mCallback.getData());
+        return mLayoutAlgorithm.computeStackVisibilityReport();
     }
 
     /**
@@ -645,17 +1074,27 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
         int width = MeasureSpec.getSize(widthMeasureSpec);
         int height = MeasureSpec.getSize(heightMeasureSpec);
 
-        Rect _taskStackBounds = new Rect();
         mConfig.getTaskStackBounds(width, height, mConfig.systemInsets.top,
-                mConfig.systemInsets.right, _taskStackBounds);
+                mConfig.systemInsets.right, mTmpStackBounds);
 
-        setStackInsetRect(_taskStackBounds);
+        setStackInsetRect(mTmpStackBounds);
 
-        // Compute our stack/task rects
-        Rect taskStackBounds = new Rect(mTaskStackBounds);
+        // Compute our stack/task rects, unless neither the size nor the insets changed
+        Rect taskStackBounds = mTmpStackBounds;
         taskStackBounds.bottom -= mConfig.systemInsets.bottom;
-        computeRects(width, height, taskStackBounds, mConfig.launchedWithAltTab,
-                mConfig.launchedFromHome);
+        if (mAwaitingFirstLayout || width != mLastMeasureWidth || height != mLastMeasureHeight
+                || !taskStackBounds.equals(mLastMeasureStackBounds)) {
+            computeRects(width, height, taskStackBounds, mConfig.launchedWithAltTab,
+                    mConfig.launchedFromHome);
+            mLastMeasureWidth = width;
+            mLastMeasureHeight = height;
+            mLastMeasureStackBounds.set(taskStackBounds);
+            mMeasureGeneration++;
+        } else if (mLayoutAlgorithm.mTaskCount != mAdapter.getCount()) {
+            // The item notifications keep the scroll bounds up to date, this only catches changes
+            // to the data set that were not notified
+            updateMinMaxScroll(false, mConfig.launchedWithAltTab, mConfig.launchedFromHome);
+        }
 
         // If this is the first layout, then scroll to the front of the stack and synchronize the
         // stack views immediately to load all the views
@@ -665,10 +1104,14 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
             synchronizeStackViewsWithModel();
         }
 
-        // Measure each of the TaskViews
+        // Measure each of the TaskViews that was not already measured against the current rects
         int childCount = getChildCount();
         for (int i = 0; i < childCount; i++) {
             BusinessCardChildView tv = (BusinessCardChildView) getChildAt(i);
+            if (tv.mMeasureGeneration == mMeasureGeneration && !tv.isLayoutRequested()) {
+                continue;
+            }
+            tv.mMeasureGeneration = mMeasureGeneration;
             if (tv.getBackground() != null) {
                 tv.getBackground().getPadding(mTmpRect);
             } else {
@@ -711,6 +1154,11 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
         if (mAwaitingFirstLayout) {
             mAwaitingFirstLayout = false;
             onFirstLayout();
+
+            // Apply any changes that were requested before the first layout
+            if (mStackViewsDirty || mStackViewsClipDirty || mStackScrollDirty) {
+                scheduleFrame();
+            }
         }
     }
 
@@ -742,10 +1190,10 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
         // enter animation).
         if (mConfig.launchedWithAltTab) {
             if (mConfig.launchedFromAppWithThumbnail) {
-                focusTask(Math.max(0, mCallback.getData().size() - 2), false,
+                focusTask(Math.max(0, mAdapter.getCount() - 2), false,
                         mConfig.launchedHasConfigurationChanged);
             } else {
-                focusTask(Math.max(0, mCallback.getData().size() - 1), false,
+                focusTask(Math.max(0, mAdapter.getCount() - 1), false,
                         mConfig.launchedHasConfigurationChanged);
             }
         }
@@ -777,31 +1225,26 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
             return;
         }
 
-        if (mCallback.getData().size() > 0) {
+        if (mAdapter.getCount() > 0) {
             int childCount = getChildCount();
 
-            // Animate all the task views into view
+            // Animate all the task views into view.  The child reads the transform as it starts
+            // its animation, so a single transform is reused for all of them
+            if (ctx.currentTaskTransform == null) {
+                ctx.currentTaskTransform = new BusinessCardChildViewTransform();
+            }
+            if(DVUtils.isAboveSDKVersion(11)){
+                ctx.updateListener = getRequestUpdateClippingListener();
+            }
             for (int i = childCount - 1; i >= 0; i--) {
                 BusinessCardChildView<T> tv = (BusinessCardChildView) getChildAt(i);
-                T key = tv.getAttachedKey();
-                ctx.currentTaskTransform = new BusinessCardChildViewTransform();
                 ctx.currentStackViewIndex = i;
                 ctx.currentStackViewCount = childCount;
                 ctx.currentTaskRect = mLayoutAlgorithm.mTaskRect;
                 // TODO: this needs to go
                 ctx.currentTaskOccludesLaunchTarget = false;
-                if(DVUtils.isAboveSDKVersion(11)){
-	                ValueAnimator.AnimatorUpdateListener mRequestUpdateClippingListener =
-	                        new ValueAnimator.AnimatorUpdateListener() {
-	                            @Override
-	                            public void onAnimationUpdate(ValueAnimator animation) {
-	                                requestUpdateStackViewsClip();
-	                            }
-	                        };                     
-	                ctx.updateListener = mRequestUpdateClippingListener;
-                }
-                mLayoutAlgorithm.getStackTransform(key, mStackScroller.getStackScroll(),
-                        ctx.currentTaskTransform, null);
+                mLayoutAlgorithm.getStackTransform(tv.getAdapterPosition(),
+                        mStackScroller.getStackScroll(), ctx.currentTaskTransform, null);
                 tv.startEnterRecentsAnimation(ctx);
             }
 
@@ -914,10 +1357,13 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
     @Override
     public void prepareViewToEnterPool(BusinessCardChildView<T> tv) {
         T key = tv.getAttachedKey();
+        int position = tv.getAdapterPosition();
+        if (position != -1 && mAttachedTaskViews.get(position) == tv) {
+            mAttachedTaskViews.remove(position);
+        }
 
-        mCallback.unloadViewData(key);
+        unbindTaskView(tv, key);
         tv.onTaskUnbound();
-        tv.onDataUnloaded();
 
         // Detach the view from the hierarchy
         detachViewFromParent(tv);
@@ -930,16 +1376,18 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
     }
 
     @Override
-    public void prepareViewToLeavePool(BusinessCardChildView<T> dcv, T key, boolean isNewView) {
+    public void prepareViewToLeavePool(BusinessCardChildView<T> dcv, int position, boolean isNewView) {
         // It is possible for a view to be returned to the view pool before it is laid out,
         // which means that we will need to relayout the view when it is first used next.
         boolean requiresRelayout = dcv.getWidth() <= 0 && !isNewView;
 
         // Rebind the task and request that this task's data be filled into the TaskView
-        dcv.onTaskBound(key);
+        T key = mAdapter.getItem(position);
+        dcv.onTaskBound(key, position, mAdapter.getItemId(position));
+        mAttachedTaskViews.put(position, dcv);
 
-        // Load the task data
-        mCallback.loadViewData(new WeakReference<BusinessCardChildView<T>>(dcv), key);
+        // Bind the task data, unless the card is a placeholder that is not loaded yet
+        bindTaskView(dcv, key);
 
         // If the doze trigger has already fired, then update the state for this task view
         if (mUIDozeTrigger.hasTriggered()) {
@@ -953,12 +1401,10 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
 
         // Find the index where this task should be placed in the stack
         int insertIndex = -1;
-        int position = mCallback.getData().indexOf(key);
         if (position != -1) {
             int childCount = getChildCount();
             for (int i = 0; i < childCount; i++) {
-                T otherKey = ((BusinessCardChildView<T>) getChildAt(i)).getAttachedKey();
-                int pos = mCallback.getData().indexOf(otherKey);
+                int pos = ((BusinessCardChildView<T>) getChildAt(i)).getAdapterPosition();
                 if (position < pos) {
                     insertIndex = i;
                     break;
@@ -984,8 +1430,8 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
     }
 
     @Override
-    public boolean hasPreferredData(BusinessCardChildView<T> tv, T preferredData) {
-        return (tv.getAttachedKey() != null && tv.getAttachedKey().equals(preferredData));
+    public boolean hasPreferredData(BusinessCardChildView<T> tv, long preferredId) {
+        return tv.getItemId() == preferredId;
     }
 
     /**
@@ -1006,23 +1452,24 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
     public void onDeckChildViewClicked(BusinessCardChildView<T> dcv, T key) {
         // Cancel any doze triggers
         mUIDozeTrigger.stopDozing();
-        mCallback.onItemClick(key);
+        if (key != null) {
+            mCallback.onItemClick(key);
+        }
     }
 
     @Override
     public void onDeckChildViewDismissed(BusinessCardChildView<T> dcv) {
         boolean taskWasFocused = dcv.isFocusedTask();
 
-        T key = dcv.getAttachedKey();
-        int taskIndex = mCallback.getData().indexOf(key);
+        int taskIndex = dcv.getAdapterPosition();
 
         onStackTaskRemoved(dcv);
 
         // If the dismissed task was focused, then we should focus the new task in the same index
         if (taskIndex != -1 && taskWasFocused) {
-            int nextTaskIndex = Math.min(mCallback.getData().size() - 1, taskIndex - 1);
+            int nextTaskIndex = Math.min(mAdapter.getCount() - 1, taskIndex - 1);
             if (nextTaskIndex >= 0) {
-                BusinessCardChildView nextTv = getChildViewForTask(mCallback.getData().get(nextTaskIndex));
+                BusinessCardChildView nextTv = getChildViewForPosition(nextTaskIndex);
                 if (nextTv != null) {
                     // Focus the next task, and only animate the visible state if we are launched
                     // from Alt-Tab
@@ -1037,7 +1484,6 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
         // to work here because the task is no longer in the list
         if (removedView != null) {
             T key = removedView.getAttachedKey();
-            int removedPosition = mCallback.getData().indexOf(key);
             mViewPool.returnViewToPool(removedView);
 
             // Notify the callback that we've removed the task and it can clean up after it
@@ -1047,12 +1493,11 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
         /*
         // Get the stack scroll of the task to anchor to (since we are removing something, the front
         // most task will be our anchor task)
-        T anchorTask = null;
         float prevAnchorTaskScroll = 0;
         boolean pullStackForward = mCallback.getData().size() > 0;
         if (pullStackForward) {
-            anchorTask = mCallback.getData().get(mCallback.getData().size() - 1);
-            prevAnchorTaskScroll = mLayoutAlgorithm.getStackScrollForTask(anchorTask);
+            prevAnchorTaskScroll = mLayoutAlgorithm.getStackScrollForTask(
+                    mLayoutAlgorithm.mTaskCount - 1);
         }
 
         // Update the min/max scroll and animate other task views into their new positions
@@ -1060,7 +1505,8 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
 
         // Offset the stack by as much as the anchor task would otherwise move back
         if (pullStackForward) {
-            float anchorTaskScroll = mLayoutAlgorithm.getStackScrollForTask(anchorTask);
+            float anchorTaskScroll = mLayoutAlgorithm.getStackScrollForTask(
+                    mCallback.getData().size() - 1);
             mStackScroller.setStackScroll(mStackScroller.getStackScroll() + (anchorTaskScroll
                     - prevAnchorTaskScroll));
             mStackScroller.boundScroll();
@@ -1087,21 +1533,24 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
 
     public void notifyDataSetChanged() {
         // Get the stack scroll of the task to anchor to (since we are removing something, the front
-        // most task will be our anchor task)
-        T anchorTask = null;
+        // most task will be our anchor task), at the position that it had before the change
         float prevAnchorTaskScroll = 0;
-        boolean pullStackForward = mCallback.getData().size() > 0;
+        boolean pullStackForward = mAdapter.getCount() > 0;
         if (pullStackForward) {
-            anchorTask = mCallback.getData().get(mCallback.getData().size() - 1);
-            prevAnchorTaskScroll = mLayoutAlgorithm.getStackScrollForTask(anchorTask);
+            prevAnchorTaskScroll = getPrevAnchorTaskScroll(
+                    getPrevAttachedPosition(mAdapter.getCount() - 1));
         }
 
+        // Move the attached views onto the new positions of their cards
+        rebindAttachedTaskViews();
+
         // Update the min/max scroll and animate other task views into their new positions
         updateMinMaxScroll(true, mConfig.launchedWithAltTab, mConfig.launchedFromHome);
 
         // Offset the stack by as much as the anchor task would otherwise move back
         if (pullStackForward) {
-            float anchorTaskScroll = mLayoutAlgorithm.getStackScrollForTask(anchorTask);
+            float anchorTaskScroll = mLayoutAlgorithm.getStackScrollForTask(
+                    mAdapter.getCount() - 1);
             mStackScroller.setStackScroll(mStackScroller.getStackScroll() + (anchorTaskScroll
                     - prevAnchorTaskScroll));
             mStackScroller.boundScroll();
@@ -1110,19 +1559,172 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
         // Animate all the tasks into place
         requestSynchronizeStackViewsWithModel(200);
 
-        T newFrontMostTask = mCallback.getData().size() > 0 ?
-                mCallback.getData().get(mCallback.getData().size() - 1)
-                : null;
-        // Update the new front most task
-        if (newFrontMostTask != null) {
-            BusinessCardChildView<T> frontTv = getChildViewForTask(newFrontMostTask);
-            if (frontTv != null) {
-                frontTv.onTaskBound(newFrontMostTask);
+        // If there are no remaining tasks
+        if (mAdapter.getCount() == 0) {
+            mCallback.onNoViewsToDeck();
+        }
+    }
+
+    public void notifyItemInserted(int position) {
+        notifyItemRangeInserted(position, 1);
+    }
+
+    /**
+     * Inserts the views for the cards that were inserted into the adapter.  Only the scroll
+     * bounds are updated, and the cards already in the stack animate to their new positions.
+     */
+    public void notifyItemRangeInserted(int positionStart, int itemCount) {
+        if (itemCount <= 0) return;
+        onTaskRangeInserted(positionStart, itemCount);
+    }
+
+    public void notifyItemRemoved(int position) {
+        notifyItemRangeRemoved(position, 1);
+    }
+
+    /**
+     * Removes the views of the cards that were removed from the adapter.
+     */
+    public void notifyItemRangeRemoved(int positionStart, int itemCount) {
+        if (itemCount <= 0) return;
+        onTaskRangeRemoved(positionStart, itemCount);
+    }
+
+    /**
+     * Moves the view of a card that was moved in the adapter.
+     */
+    public void notifyItemMoved(int fromPosition, int toPosition) {
+        if (fromPosition == toPosition) return;
+        onTaskMoved(fromPosition, toPosition);
+    }
+
+    public void notifyItemChanged(int position) {
+        notifyItemRangeChanged(position, 1);
+    }
+
+    /**
+     * Rebinds the visible cards in the range that were updated in place.  The layout is not
+     * affected, so nothing moves.
+     */
+    public void notifyItemRangeChanged(int positionStart, int itemCount) {
+        int positionEnd = positionStart + itemCount;
+        for (int i = mAttachedTaskViews.size() - 1; i >= 0; i--) {
+            int position = mAttachedTaskViews.keyAt(i);
+            if (positionStart <= position && position < positionEnd) {
+                rebindTaskView(mAttachedTaskViews.valueAt(i), position, true);
             }
         }
+    }
+
+    /**
+     * Starts a batch of item notifications.  The stack is anchored and bounded once for the whole
+     * batch, when the matching endBatchUpdate() is called.
+     */
+    public void beginBatchUpdate() {
+        if (mBatchUpdateDepth == 0) {
+            mBatchTaskCountChanged = false;
+        }
+        mBatchUpdateDepth++;
+    }
+
+    public void endBatchUpdate() {
+        if (mBatchUpdateDepth == 0) {
+            throw new IllegalStateException("endBatchUpdate() without beginBatchUpdate()");
+        }
+        mBatchUpdateDepth--;
+        if (mBatchUpdateDepth == 0) {
+            refreshAttachedTaskViewKeys();
+            if (mBatchTaskCountChanged) {
+                mBatchTaskCountChanged = false;
+                onTaskCountChanged(mBatchPrevAnchorTaskScroll, false);
+            }
+        }
+    }
+
+    /**
+     * Updates the scroll bounds after tasks were inserted into the data set, without recomputing
+     * the layout of the whole stack.
+     */
+    void onTaskRangeInserted(int positionStart, int itemCount) {
+        offsetAttachedTaskViewPositions(positionStart, itemCount, false);
+        if (mFocusedTaskIndex >= positionStart) {
+            mFocusedTaskIndex += itemCount;
+        }
+        // The front most task stays in front, unless the tasks are inserted in front of it, in
+        // which case the new front most task is new and the previous one is kept in place
+        float prevAnchorTaskScroll = getPrevAnchorTaskScroll(mLayoutAlgorithm.mTaskCount - 1);
+        mLayoutAlgorithm.onTaskRangeInserted(positionStart, itemCount);
+        onTaskCountChanged(prevAnchorTaskScroll, false);
+    }
+
+    /**
+     * Updates the scroll bounds after tasks were removed from the data set, without recomputing
+     * the layout of the whole stack.
+     */
+    void onTaskRangeRemoved(int positionStart, int itemCount) {
+        offsetAttachedTaskViewPositions(positionStart, itemCount, true);
+        if (mFocusedTaskIndex >= positionStart + itemCount) {
+            mFocusedTaskIndex -= itemCount;
+        } else if (mFocusedTaskIndex >= positionStart) {
+            mFocusedTaskIndex = -1;
+        }
+        // If the front most tasks are removed, the task behind them becomes the front most task
+        boolean removedFront = positionStart + itemCount >= mLayoutAlgorithm.mTaskCount;
+        float prevAnchorTaskScroll = getPrevAnchorTaskScroll(removedFront
+                ? positionStart - 1 : mLayoutAlgorithm.mTaskCount - 1);
+        mLayoutAlgorithm.onTaskRangeRemoved(positionStart, itemCount);
+        onTaskCountChanged(prevAnchorTaskScroll, removedFront);
+    }
+
+    /**
+     * Animates the tasks into place after a task was moved in the data set.
+     */
+    void onTaskMoved(int fromPosition, int toPosition) {
+        moveAttachedTaskViewPosition(fromPosition, toPosition);
+        if (mFocusedTaskIndex == fromPosition) {
+            mFocusedTaskIndex = toPosition;
+        } else if (fromPosition < mFocusedTaskIndex && mFocusedTaskIndex <= toPosition) {
+            mFocusedTaskIndex--;
+        } else if (toPosition <= mFocusedTaskIndex && mFocusedTaskIndex < fromPosition) {
+            mFocusedTaskIndex++;
+        }
+        mLayoutAlgorithm.onTaskMoved(fromPosition, toPosition);
+        requestSynchronizeStackViewsWithModel(200);
+    }
+
+    /**
+     * Keeps the front most task anchored after the number of tasks changed, and animates the
+     * other tasks into their new positions.
+     */
+    void onTaskCountChanged(float prevAnchorTaskScroll, boolean frontChanged) {
+        if (mBatchUpdateDepth > 0) {
+            // Anchor to the front most task from before the batch, once the batch ends.  If a
+            // later change removes the front most task, anchor to the task behind it instead,
+            // which is at its position from before the batch as long as the removals come back
+            // to front, as DeckDiff sends them
+            if (!mBatchTaskCountChanged || frontChanged) {
+                mBatchTaskCountChanged = true;
+                mBatchPrevAnchorTaskScroll = prevAnchorTaskScroll;
+            }
+            return;
+        }
+
+        mStackScroller.boundScroll();
+
+        // Offset the stack by as much as the anchor task would otherwise move back
+        if (mLayoutAlgorithm.mTaskCount > 0) {
+            float anchorTaskScroll = mLayoutAlgorithm.getStackScrollForTask(
+                    mLayoutAlgorithm.mTaskCount - 1);
+            mStackScroller.setStackScroll(mStackScroller.getStackScroll() + (anchorTaskScroll
+                    - prevAnchorTaskScroll));
+            mStackScroller.boundScroll();
+        }
+
+        // Animate all the tasks into place
+        requestSynchronizeStackViewsWithModel(200);
 
         // If there are no remaining tasks
-        if (mCallback.getData().size() == 0) {
+        if (mLayoutAlgorithm.mTaskCount == 0) {
             mCallback.onNoViewsToDeck();
         }
     }
@@ -1130,14 +1732,14 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
     @Override
     public void onDeckChildViewClipStateChanged(BusinessCardChildView tv) {
         if (!mStackViewsDirty) {
-            invalidate();
+            requestUpdateStackViewsClip();
         }
     }
 
     @Override
     public void onDeckChildViewFocusChanged(BusinessCardChildView<T> tv, boolean focused) {
         if (focused) {
-            mFocusedTaskIndex = mCallback.getData().indexOf(tv.getAttachedKey());
+            mFocusedTaskIndex = tv.getAdapterPosition();
         }
     }
     
@@ -1148,37 +1750,28 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
      */
 
     @Override
-    public void onScrollChanged(float p) {    	
-        mUIDozeTrigger.poke();
+    public void onScrollChanged(float p) {
+        // Coalesce the scroll changes within a frame, they are applied in doFrame()
+        mStackScrollDirty = true;
         requestSynchronizeStackViewsWithModel();
-        if(DVUtils.isAboveSDKVersion(16)){
-        	postInvalidateOnAnimation();
-        }
+        scheduleFrame();
     }
     
+    /**
+     * Returns the progress to scroll by so that the card nearest to the bottom line snaps onto it.
+     * The card is found by inverting the curve, so this is O(1) and does not allocate.
+     */
     public float getScrollOffset(float p){
-    	ArrayList<T> data = mCallback.getData();
-        float stackScroll = p;
-        int[] curVisibleRange = new int[2];
-        ArrayList<BusinessCardChildViewTransform> curTransform = new ArrayList<BusinessCardChildViewTransform>();
-        boolean isValidVisibleRange = updateStackTransforms(curTransform,
-                data, stackScroll, curVisibleRange, false);
-
-        String strLog = "";
-        int bottomLine = mLayoutAlgorithm.mViewRect.bottom - mConfig.taskBarHeight;
-        //Log.e("hjy","bottomLine:" + bottomLine);
-        int offsetAdjustment = Integer.MAX_VALUE;
-        for (int i = curVisibleRange[0]; isValidVisibleRange && i >= curVisibleRange[1]; i--) {
-            BusinessCardChildViewTransform transform = curTransform.get(i);
-            if(Math.abs(transform.translationY - bottomLine) < Math.abs(offsetAdjustment)){
-            	offsetAdjustment = transform.translationY - bottomLine;
-            }
-            
-            strLog += i + " : " + transform.translationY + " : " + (transform.translationY - bottomLine) + " | ";
+        int[] visibleRange = mTmpScrollOffsetRange;
+        if (!mLayoutAlgorithm.computeVisibleRange(p, visibleRange)) {
+            return 0.0f;
         }
-        
-        //Log.e("hjy",strLog);
-        
+
+        int bottomLine = mLayoutAlgorithm.mViewRect.bottom - mConfig.taskBarHeight;
+        int nearestIndex = mLayoutAlgorithm.getTaskIndexNearestTranslationY(p, bottomLine,
+                visibleRange[0], visibleRange[1]);
+        int offsetAdjustment = mLayoutAlgorithm.getTaskTranslationY(nearestIndex, p) - bottomLine;
+
         float pBottom = mLayoutAlgorithm.screenYToCurveProgress(mLayoutAlgorithm.mViewRect.bottom);
         float pAdjustBottom = mLayoutAlgorithm.screenYToCurveProgress(mLayoutAlgorithm.mViewRect.bottom + offsetAdjustment);
         
@@ -1187,11 +1780,11 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
         	pAdjustBottom = mLayoutAlgorithm.screenYToCurveProgress(mLayoutAlgorithm.mViewRect.bottom);
         }
         
-        if(curVisibleRange[0] == 2){
+        if(visibleRange[0] == 2){
         	return 0.0f;
         }
         
-        if(curVisibleRange[0] == data.size() -1 && Math.abs(offsetAdjustment) > mLayoutAlgorithm.mTaskRect.height() / 2){
+        if(visibleRange[0] == mLayoutAlgorithm.mTaskCount - 1 && Math.abs(offsetAdjustment) > mLayoutAlgorithm.mTaskRect.height() / 2){
         	return 0.0f;
         }
         
@@ -1199,24 +1792,23 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
     }
 
     public void notifyDataSetChangedOld() {
-        ArrayList<T> data = mCallback.getData();
+        int count = mAdapter.getCount();
 
         // Get the stack scroll of the task to anchor to (since we are removing something, the front
         // most task will be our anchor task)
-        T anchorTask = null;
         float prevAnchorTaskScroll = 0;
-        boolean pullStackForward = data.size() > 0;
+        boolean pullStackForward = count > 0;
         if (pullStackForward) {
-            anchorTask = data.get(data.size() - 1);
-            prevAnchorTaskScroll = mLayoutAlgorithm.getStackScrollForTask(anchorTask);
+            prevAnchorTaskScroll = getPrevAnchorTaskScroll(getPrevAttachedPosition(count - 1));
         }
+        rebindAttachedTaskViews();
 
         // Update the min/max scroll and animate other task views into their new positions
         updateMinMaxScroll(true, mConfig.launchedWithAltTab, mConfig.launchedFromHome);
 
         // Offset the stack by as much as the anchor task would otherwise move back
         if (pullStackForward) {
-            float anchorTaskScroll = mLayoutAlgorithm.getStackScrollForTask(anchorTask);
+            float anchorTaskScroll = mLayoutAlgorithm.getStackScrollForTask(count - 1);
             mStackScroller.setStackScroll(mStackScroller.getStackScroll() + (anchorTaskScroll
                     - prevAnchorTaskScroll));
             mStackScroller.boundScroll();
@@ -1225,34 +1817,16 @@ public class BusinessCardView<T> extends FrameLayout implements /*TaskStack.Task
         // Animate all the tasks into place
         requestSynchronizeStackViewsWithModel(200);
 
-        T newFrontMostTask = data.get(data.size() - 1);
-        // Update the new front most task
-        if (newFrontMostTask != null) {
-            BusinessCardChildView<T> frontTv = getChildViewForTask(newFrontMostTask);
-            if (frontTv != null) {
-                frontTv.onTaskBound(newFrontMostTask);
-            }
-        }
-
         // If there are no remaining tasks
-        if (mCallback.getData().size() == 0)
+        if (count == 0)
             mCallback.onNoViewsToDeck();
     }
     
-    public void startCheckScroll(){
-    	removeCallbacks(mScrollChecker);
-    	postDelayed(mScrollChecker, DELAY_MILLIS);
-    }
-
+    DeckAdapter<T> mAdapter;
+    CardBinder<T, ?> mCardBinder;
     Callback<T> mCallback;
 
     public interface Callback<T> {
-        public ArrayList<T> getData();
-
-        public void loadViewData(WeakReference<BusinessCardChildView<T>> dcv, T item);
-
-        public void unloadViewData(T item);
-
         public void onViewDismissed(T item);
 
         public void onItemClick(T item);
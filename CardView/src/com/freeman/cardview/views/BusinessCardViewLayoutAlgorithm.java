@@ -1,25 +1,26 @@
 package com.freeman.cardview.views;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-
 import android.graphics.Rect;
-import android.util.Log;
 
 import com.freeman.cardview.helpers.BusinessCardChildViewTransform;
 import com.freeman.cardview.helpers.BusinessCardViewConfig;
-import com.freeman.cardview.utilities.DVUtils;
+import com.freeman.cardview.layout.StackCurve;
+import com.freeman.cardview.layout.StackLayout;
+import com.freeman.cardview.layout.StackRect;
+import com.freeman.cardview.layout.StackTransform;
+import com.freeman.cardview.layout.StackTransformBuffer;
 
 /* The layout logic for a TaskStackView.
  *
- * We are using a curve that defines the curve of the tasks as that go back in the recents list.
- * The curve is defined such that at curve progress p = 0 is the end of the curve (the top of the
- * stack rect), and p = 1 at the start of the curve and the bottom of the stack rect.
+ * The curve, progress, visible range and transform math live in the Android-free StackLayout; this
+ * class adapts it to the view, mirroring its rects and scroll bounds into the fields that the
+ * view, the scroller and the touch handler read, and converting its transforms into
+ * BusinessCardChildViewTransforms.
  */
 public class BusinessCardViewLayoutAlgorithm<T> {
 
     // These are all going to change
-    static final float StackPeekMinScale = 0.8f; // The min scale of the last card in the peek area
+    static final float StackPeekMinScale = StackLayout.StackPeekMinScale; // The min scale of the last card in the peek area
 
     // A report of the visibility state of the stack
     public class VisibilityReport {
@@ -36,193 +37,136 @@ public class BusinessCardViewLayoutAlgorithm<T> {
     }
 
     BusinessCardViewConfig mConfig;
+    StackLayout mLayout = new StackLayout();
 
-    // The various rects that define the stack view
+    // The various rects that define the stack view, mirrored from the stack layout
     public Rect mViewRect = new Rect(); //界面可见大小
     Rect mStackVisibleRect = new Rect(); //同上
     Rect mStackRect = new Rect(); // 整个列表的大小，减去padding，左右各15，上下各24
     Rect mTaskRect = new Rect(); //正方形，屏幕的宽送去30
 
-    // The min/max scroll progress
+    // The min/max scroll progress, mirrored from the stack layout
     float mMinScrollP;
     float mMaxScrollP;
     float mInitialScrollP;
-    int mWithinAffiliationOffset; //taskBarHeight，56dp
-    int mBetweenAffiliationOffset;//卡片宽度的一半（4分之1的屏幕宽度）
-    HashMap<T, Float> mTaskProgressMap = new HashMap<T, Float>();
+    int mTaskCount;
 
-    // Log function
-    static final float XScale = 1.75f;  // The large the XScale, the longer the flat area of the curve
-    static final float LogBase = 3000;
-    static final int PrecisionSteps = 250;
-    static float[] xp;
-    static float[] px;
+    StackTransform mTmpTransform = new StackTransform();
+    StackTransform mTmpPrevTransform = new StackTransform();
+    int[] mTmpCounts = new int[2];
 
     public BusinessCardViewLayoutAlgorithm(BusinessCardViewConfig config) {
         mConfig = config;
+    }
+
+    /**
+     * Returns the Android-free stack layout that this algorithm wraps.
+     */
+    public StackLayout getStackLayout() {
+        return mLayout;
+    }
 
-        // Precompute the path
-        initializeCurve();
+    /**
+     * Sets the curve that the tasks follow as they go back in the stack.  computeRects() and
+     * computeMinMaxScroll() must be called afterwards.
+     */
+    public void setStackCurve(StackCurve curve) {
+        mLayout.setStackCurve(curve);
     }
 
     /**
      * Computes the stack and task rects
      */
     public void computeRects(int windowWidth, int windowHeight, Rect taskStackBounds) {
-        // Compute the stack rects
-        mViewRect.set(0, 0, windowWidth, windowHeight);
-        mStackRect.set(taskStackBounds);
-        mStackVisibleRect.set(taskStackBounds);
-        mStackVisibleRect.bottom = mViewRect.bottom;
-
-        int widthPadding = (int) (mConfig.taskStackWidthPaddingPct * mStackRect.width());
-        int heightPadding = mConfig.taskStackTopPaddingPx;
-        mStackRect.inset(widthPadding, heightPadding);
-
-        // Compute the task rect
-        int size = mStackRect.width();
-        int left = mStackRect.left + (mStackRect.width() - size) / 2;
-        mTaskRect.set(left, mStackRect.top,
-                left + size, mStackRect.top + size);
-
-        // Update the affiliation offsets
-        float visibleTaskPct = 0.5f;
-        mWithinAffiliationOffset = mConfig.taskBarHeight;
-        mBetweenAffiliationOffset = (int) (visibleTaskPct * mTaskRect.height());
+        mLayout.setLayoutParams(mConfig.taskStackWidthPaddingPct, mConfig.taskStackTopPaddingPx,
+                mConfig.taskBarHeight, mConfig.taskViewTranslationZMinPx,
+                mConfig.taskViewTranslationZMaxPx);
+        mLayout.computeRects(windowWidth, windowHeight, taskStackBounds.left,
+                taskStackBounds.top, taskStackBounds.right, taskStackBounds.bottom);
+        copyRect(mLayout.mViewRect, mViewRect);
+        copyRect(mLayout.mStackVisibleRect, mStackVisibleRect);
+        copyRect(mLayout.mStackRect, mStackRect);
+        copyRect(mLayout.mTaskRect, mTaskRect);
     }
 
     /**
      * Computes the minimum and maximum scroll progress values.  This method may be called before
      * the RecentsConfiguration is set, so we need to pass in the alt-tab state.
      */
-    void computeMinMaxScroll(ArrayList<T> data, boolean launchedWithAltTab,
+    void computeMinMaxScroll(int taskCount, boolean launchedWithAltTab,
                              boolean launchedFromHome) {
-        // Clear the progress map
-        mTaskProgressMap.clear();
+        mLayout.computeMinMaxScroll(taskCount, launchedWithAltTab, launchedFromHome);
+        updateScrollBounds();
+    }
 
-        // Return early if we have no tasks
-        if (data.isEmpty()) {
-            mMinScrollP = mMaxScrollP = 0;
-            return;
-        }
+    /**
+     * Updates the scroll bounds after tasks were inserted.  Since the progress of each task only
+     * depends on its position, this is O(1).
+     */
+    void onTaskRangeInserted(int positionStart, int itemCount) {
+        mLayout.onTaskRangeInserted(positionStart, itemCount);
+        updateScrollBounds();
+    }
 
-        // Note that we should account for the scale difference of the offsets at the screen bottom
-        int taskHeight = mTaskRect.height();
-        float pAtBottomOfStackRect = screenYToCurveProgress(mStackVisibleRect.bottom);
-        float pWithinAffiliateTop = screenYToCurveProgress(mStackVisibleRect.bottom -
-                mWithinAffiliationOffset);
-        float scale = curveProgressToScale(pWithinAffiliateTop);
-        int scaleYOffset = (int) (((1f - scale) * taskHeight) / 2);
-        pWithinAffiliateTop = screenYToCurveProgress(mStackVisibleRect.bottom -
-                mWithinAffiliationOffset + scaleYOffset);
-        float pWithinAffiliateOffset = pAtBottomOfStackRect - pWithinAffiliateTop;
-        float pBetweenAffiliateOffset = pAtBottomOfStackRect -
-                screenYToCurveProgress(mStackVisibleRect.bottom - mBetweenAffiliationOffset);
-        float pTaskHeightOffset = pAtBottomOfStackRect -
-                screenYToCurveProgress(mStackVisibleRect.bottom - taskHeight);
-        float pNavBarOffset = pAtBottomOfStackRect -
-                screenYToCurveProgress(mStackVisibleRect.bottom - (mStackVisibleRect.bottom -
-                        mStackRect.bottom));
-        
-        // Update the task offsets
-        float pAtBackMostCardTop = 0.5f;
-        float pAtFrontMostCardTop = pAtBackMostCardTop;
-        int taskCount = data.size();
-        for (int i = 0; i < taskCount; i++) {
-            //Task task = tasks.get(i);
-            //mTaskProgressMap.put(task.key, pAtFrontMostCardTop);
-            mTaskProgressMap.put(data.get(i), pAtFrontMostCardTop);
-
-            if (i < (taskCount - 1)) {
-                // Increment the peek height
-                // TODO: Might need adjustments
-                //float pPeek = task.group.isFrontMostTask(task) ?
-                //pBetweenAffiliateOffset : pWithinAffiliateOffset;
-                float pPeek = pBetweenAffiliateOffset;
-                pAtFrontMostCardTop += pPeek;
-            }
-        }
+    /**
+     * Updates the scroll bounds after tasks were removed.
+     */
+    void onTaskRangeRemoved(int positionStart, int itemCount) {
+        mLayout.onTaskRangeRemoved(positionStart, itemCount);
+        updateScrollBounds();
+    }
+
+    /**
+     * Updates the scroll bounds after a task was moved.
+     */
+    void onTaskMoved(int fromPosition, int toPosition) {
+        mLayout.onTaskMoved(fromPosition, toPosition);
+    }
 
-        mMaxScrollP = pAtFrontMostCardTop - ((1f - pTaskHeightOffset - pNavBarOffset));
-        mMinScrollP = data.size() == 1 ? Math.max(mMaxScrollP, 0f) : 0f;
-        if (launchedWithAltTab && launchedFromHome) {
-            // Center the top most task, since that will be focused first
-            mInitialScrollP = mMaxScrollP;
-        } else {
-            mInitialScrollP = pAtFrontMostCardTop - 0.825f;
-        }        mInitialScrollP = Math.min(mMaxScrollP, Math.max(0, mInitialScrollP));
+    /**
+     * Mirrors the scroll bounds of the stack layout.
+     */
+    void updateScrollBounds() {
+        mMinScrollP = mLayout.getMinScrollP();
+        mMaxScrollP = mLayout.getMaxScrollP();
+        mInitialScrollP = mLayout.getInitialScrollP();
+        mTaskCount = mLayout.getTaskCount();
     }
 
     /**
      * Computes the maximum number of visible tasks and thumbnails.  Requires that
      * computeMinMaxScroll() is called first.
      */
-    public VisibilityReport computeStackVisibilityReport(ArrayList<T> data) {
-        if (data.size() <= 1) {
-            return new VisibilityReport(1, 1);
-        }
+    public VisibilityReport computeStackVisibilityReport() {
+        mLayout.computeVisibleTaskCounts(mTmpCounts);
+        return new VisibilityReport(mTmpCounts[0], mTmpCounts[1]);
+    }
 
-        // Walk backwards in the task stack and count the number of tasks and visible thumbnails
-        int taskHeight = mTaskRect.height();
-        int numVisibleTasks = 1;
-        int numVisibleThumbnails = 1;
-        //float progress = mTaskProgressMap.get(tasks.get(tasks.size() - 1).key) - mInitialScrollP;
-
-        float progress = mTaskProgressMap.get(data.get(data.size() - 1)) - mInitialScrollP;
-        int prevScreenY = curveProgressToScreenY(progress);
-        for (int i = data.size() - 2; i >= 0; i--) {
-            //Task task = tasks.get(i);
-            //progress = mTaskProgressMap.get(task.key) - mInitialScrollP;
-            progress = mTaskProgressMap.get(data.get(i)) - mInitialScrollP;
-            if (progress < 0) {
-                break;
-            }
-
-            // TODO: Might need adjustments
-            //boolean isFrontMostTaskInGroup = task.group.isFrontMostTask(task);
-            boolean isFrontMostTaskInGroup = true;
-            if (isFrontMostTaskInGroup) {
-                float scaleAtP = curveProgressToScale(progress);
-                int scaleYOffsetAtP = (int) (((1f - scaleAtP) * taskHeight) / 2);
-                int screenY = curveProgressToScreenY(progress) + scaleYOffsetAtP;
-                boolean hasVisibleThumbnail = (prevScreenY - screenY) > mConfig.taskBarHeight;
-                if (hasVisibleThumbnail) {
-                    numVisibleThumbnails++;
-                    numVisibleTasks++;
-                    prevScreenY = screenY;
-                } else {
-                    // Once we hit the next front most task that does not have a visible thumbnail,
-                    // walk through remaining visible set
-                    for (int j = i; j >= 0; j--) {
-                        numVisibleTasks++;
-                        progress = mTaskProgressMap.get(data.get(i)) - mInitialScrollP;
-                        if (progress < 0) {
-                            break;
-                        }
-                    }
-                    break;
-                }
-            } else if (!isFrontMostTaskInGroup) {
-                // Affiliated task, no thumbnail
-                numVisibleTasks++;
-            }
-        }
-        return new VisibilityReport(numVisibleTasks, numVisibleThumbnails);
+    /**
+     * Computes the transforms of the visible tasks for the given stack scroll into the buffer.
+     */
+    boolean computeStackTransforms(float stackScroll, StackTransformBuffer transformsOut,
+                                   int[] visibleRangeOut, boolean boundTranslationsToRect) {
+        return mLayout.computeStackTransforms(stackScroll, transformsOut, mTmpTransform,
+                visibleRangeOut, boundTranslationsToRect);
     }
 
     /**
      * Update/get the transform
      */
-    public BusinessCardChildViewTransform getStackTransform(T key, float stackScroll,
+    public BusinessCardChildViewTransform getStackTransform(int index, float stackScroll,
                                                     BusinessCardChildViewTransform transformOut,
                                                     BusinessCardChildViewTransform prevTransform) {
-        // Return early if we have an invalid index
-        if (!mTaskProgressMap.containsKey(key)) {
-            transformOut.reset();
-            return transformOut;
-        }
-        return getStackTransform(mTaskProgressMap.get(key), stackScroll, transformOut,
-                prevTransform);
+        mLayout.getStackTransform(index, stackScroll, mTmpTransform, toStackTransform(prevTransform));
+        return transformOut.set(mTmpTransform);
+    }
+
+    /**
+     * Computes the range of visible tasks for the given stack scroll, see
+     * StackLayout.computeVisibleRange().
+     */
+    public boolean computeVisibleRange(float stackScroll, int[] visibleRangeOut) {
+        return mLayout.computeVisibleRange(stackScroll, visibleRangeOut);
     }
 
     /**
@@ -231,176 +175,89 @@ public class BusinessCardViewLayoutAlgorithm<T> {
     public BusinessCardChildViewTransform getStackTransform(float taskProgress, float stackScroll,
                                                     BusinessCardChildViewTransform transformOut,
                                                     BusinessCardChildViewTransform prevTransform) {
-        float pTaskRelative = taskProgress - stackScroll;
-        float pBounded = Math.max(0, Math.min(pTaskRelative, 1f));
-        // If the task top is outside of the bounds below the screen, then immediately reset it
-        if (pTaskRelative > 1f) {
-            transformOut.reset();
-            transformOut.rect.set(mTaskRect);
-            return transformOut;
-        }
-        // The check for the top is trickier, since we want to show the next task if it is at all
-        // visible, even if p < 0.
-        if (pTaskRelative < 0f) {
-            if (prevTransform != null && Float.compare(prevTransform.p, 0f) <= 0) {
-                transformOut.reset();
-                transformOut.rect.set(mTaskRect);
-                return transformOut;
-            }
-        }
-        float scale = curveProgressToScale(pBounded);
-        int scaleYOffset = (int) (((1f - scale) * mTaskRect.height()) / 2);
-        int minZ = mConfig.taskViewTranslationZMinPx;
-        int maxZ = mConfig.taskViewTranslationZMaxPx;
-        transformOut.scale = scale;
-        transformOut.translationY = curveProgressToScreenY(pBounded) - mStackVisibleRect.top -
-                scaleYOffset;
-        transformOut.translationZ = Math.max(minZ, minZ + (pBounded * (maxZ - minZ)));
-        transformOut.rect.set(mTaskRect);
-        transformOut.rect.offset(0, transformOut.translationY);
-        DVUtils.scaleRectAboutCenter(transformOut.rect, transformOut.scale);
-        transformOut.visible = true;
-        transformOut.p = pTaskRelative;
-        return transformOut;
+        mLayout.getStackTransform(taskProgress, stackScroll, mTmpTransform,
+                toStackTransform(prevTransform));
+        return transformOut.set(mTmpTransform);
     }
 
     /**
-     * Returns the untransformed task view size.
+     * Returns the translationY of the task at the given index for the given stack scroll.
      */
-    public Rect getUntransformedTaskViewSize() {
-        Rect tvSize = new Rect(mTaskRect);
-        tvSize.offsetTo(0, 0);
-        return tvSize;
+    int getTaskTranslationY(int index, float stackScroll) {
+        return mLayout.getTaskTranslationY(index, stackScroll);
     }
 
     /**
-     * Returns the scroll to such task top = 1f;
+     * Returns the visible task whose translationY is nearest to the given one, see
+     * StackLayout.getTaskIndexNearestTranslationY().
      */
-    public float getStackScrollForTask(T key) {
-        if (!mTaskProgressMap.containsKey(key)) return 0f;
-        return mTaskProgressMap.get(key);
+    int getTaskIndexNearestTranslationY(float stackScroll, int translationY, int frontIndex,
+                                        int backIndex) {
+        return mLayout.getTaskIndexNearestTranslationY(stackScroll, translationY, frontIndex,
+                backIndex);
     }
 
     /**
-     * Initializes the curve.
+     * Returns the untransformed task view size.
      */
-    public static void initializeCurve() {
-        if (xp != null && px != null) return;
-        xp = new float[PrecisionSteps + 1];
-        px = new float[PrecisionSteps + 1];
-
-        // Approximate f(x)
-        float[] fx = new float[PrecisionSteps + 1];
-        float step = 1f / PrecisionSteps;
-        float x = 0;
-        for (int xStep = 0; xStep <= PrecisionSteps; xStep++) {
-            fx[xStep] = logFunc(x);
-            x += step;
-        }
-        // Calculate the arc length for x:1->0
-        float pLength = 0;
-        float[] dx = new float[PrecisionSteps + 1];
-        dx[0] = 0;
-        for (int xStep = 1; xStep < PrecisionSteps; xStep++) {
-            dx[xStep] = (float) Math.sqrt(Math.pow(fx[xStep] - fx[xStep - 1], 2) + Math.pow(step, 2));
-            pLength += dx[xStep];
-        }
-        // Approximate p(x), a function of cumulative progress with x, normalized to 0..1
-        float p = 0;
-        px[0] = 0f;
-        px[PrecisionSteps] = 1f;
-        for (int xStep = 1; xStep <= PrecisionSteps; xStep++) {
-            p += Math.abs(dx[xStep] / pLength);
-            px[xStep] = p;
-        }
-        // Given p(x), calculate the inverse function x(p). This assumes that x(p) is also a valid
-        // function.
-        int xStep = 0;
-        p = 0;
-        xp[0] = 0f;
-        xp[PrecisionSteps] = 1f;
-        for (int pStep = 0; pStep < PrecisionSteps; pStep++) {
-            // Walk forward in px and find the x where px <= p && p < px+1
-            while (xStep < PrecisionSteps) {
-                if (px[xStep] > p) break;
-                xStep++;
-            }
-            // Now, px[xStep-1] <= p < px[xStep]
-            if (xStep == 0) {
-                xp[pStep] = 0;
-            } else {
-                // Find x such that proportionally, x is correct
-                float fraction = (p - px[xStep - 1]) / (px[xStep] - px[xStep - 1]);
-                x = (xStep - 1 + fraction) * step;
-                xp[pStep] = x;
-            }
-            p += step;
-        }
+    public Rect getUntransformedTaskViewSize() {
+        Rect tvSize = new Rect(mTaskRect);
+        tvSize.offsetTo(0, 0);
+        return tvSize;
     }
 
     /**
-     * Reverses and scales out x.
+     * Returns the scroll to such task top = 1f;
      */
-    static float reverse(float x) {
-        return (-x * XScale) + 1;
+    public float getStackScrollForTask(int index) {
+        return mLayout.getStackScrollForTask(index);
     }
 
     /**
-     * The log function describing the curve.
+     * Returns the curve progress of the top of the task at the given index.
      */
-    static float logFunc(float x) {
-        return 1f - (float) (Math.pow(LogBase, reverse(x))) / (LogBase);
+    float getTaskProgress(int index) {
+        return mLayout.getTaskProgress(index);
     }
 
     /**
-     * The inverse of the log function describing the curve.
+     * Returns the curve progress of the task at the given index relative to the stack scroll.
      */
-    float invLogFunc(float y) {
-        return (float) (Math.log((1f - reverse(y)) * (LogBase - 1) + 1) / Math.log(LogBase));
+    float getRelativeTaskProgress(int index, float stackScroll) {
+        return mLayout.getRelativeTaskProgress(index, stackScroll);
     }
 
     /**
      * Converts from the progress along the curve to a screen coordinate.
      */
     int curveProgressToScreenY(float p) {
-        if (p < 0 || p > 1) return mStackVisibleRect.top + (int) (p * mStackVisibleRect.height());
-        float pIndex = p * PrecisionSteps;
-        int pFloorIndex = (int) Math.floor(pIndex);
-        int pCeilIndex = (int) Math.ceil(pIndex);
-        float xFraction = 0;
-        if (pFloorIndex < PrecisionSteps && (pCeilIndex != pFloorIndex)) {
-            float pFraction = (pIndex - pFloorIndex) / (pCeilIndex - pFloorIndex);
-            xFraction = (xp[pCeilIndex] - xp[pFloorIndex]) * pFraction;
-        }
-        float x = xp[pFloorIndex] + xFraction;
-        return mStackVisibleRect.top + (int) (x * mStackVisibleRect.height());
+        return mLayout.curveProgressToScreenY(p);
     }
 
     /**
      * Converts from the progress along the curve to a scale.
      */
     float curveProgressToScale(float p) {
-        if (p < 0) return StackPeekMinScale;
-        if (p > 1) return 1f;
-        float scaleRange = (1f - StackPeekMinScale);
-        float scale = StackPeekMinScale + (p * scaleRange);
-        return scale;
+        return mLayout.curveProgressToScale(p);
     }
 
     /**
      * Converts from a screen coordinate to the progress along the curve.
      */
     float screenYToCurveProgress(int screenY) {
-        float x = (float) (screenY - mStackVisibleRect.top) / mStackVisibleRect.height();
-        if (x < 0 || x > 1) return x;
-        float xIndex = x * PrecisionSteps;
-        int xFloorIndex = (int) Math.floor(xIndex);
-        int xCeilIndex = (int) Math.ceil(xIndex);
-        float pFraction = 0;
-        if (xFloorIndex < PrecisionSteps && (xCeilIndex != xFloorIndex)) {
-            float xFraction = (xIndex - xFloorIndex) / (xCeilIndex - xFloorIndex);
-            pFraction = (px[xCeilIndex] - px[xFloorIndex]) * xFraction;
-        }
-        return px[xFloorIndex] + pFraction;
+        return mLayout.screenYToCurveProgress(screenY);
+    }
+
+    /**
+     * Only the progress of the previous transform is read by the stack layout.
+     */
+    private StackTransform toStackTransform(BusinessCardChildViewTransform t) {
+        if (t == null) return null;
+        mTmpPrevTransform.p = t.p;
+        return mTmpPrevTransform;
+    }
+
+    private static void copyRect(StackRect from, Rect to) {
+        to.set(from.left, from.top, from.right, from.bottom);
     }
-}
\ No newline at end of file
+}
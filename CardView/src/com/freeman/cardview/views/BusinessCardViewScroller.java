@@ -2,10 +2,8 @@ package com.freeman.cardview.views;
 
 import android.animation.Animator;
 import android.animation.AnimatorListenerAdapter;
-import android.animation.ObjectAnimator;
 import android.animation.ValueAnimator;
 import android.content.Context;
-import android.util.Log;
 import android.widget.OverScroller;
 
 import com.freeman.cardview.helpers.BusinessCardViewConfig;
@@ -17,6 +15,9 @@ public class BusinessCardViewScroller {
 		public float getScrollOffset(float p);
 	}
 
+	// The number of times the fling velocity may be doubled to reach a stick position
+	static final int FlingSearchMaxGrowth = 4;
+
 	BusinessCardViewConfig mConfig;
 	BusinessCardViewLayoutAlgorithm<?> mLayoutAlgorithm;
 	DeckViewScrollerCallbacks mCb;
@@ -24,14 +25,24 @@ public class BusinessCardViewScroller {
 	float mStackScrollP;
 
 	OverScroller mScroller;
-	ObjectAnimator mScrollAnimator;
+	// Runs the flings that are only predicted, so that the live scroller is not restarted
+	OverScroller mFlingPredictor;
+	// The stick position that the current fling is aiming for
+	boolean mHasFlingTarget;
+	int mFlingTargetY;
+	// A single animator drives the stack scroll animations, and is retargeted
+	// by updating the range and the end runnable below
+	ValueAnimator mScrollAnimator;
+	float mInitialAnimatedScroll;
 	float mFinalAnimatedScroll;
+	Runnable mScrollAnimationEndRunnable;
 
 	public BusinessCardViewScroller(Context context,
 			BusinessCardViewConfig config,
 			BusinessCardViewLayoutAlgorithm<?> layoutAlgorithm) {
 		mConfig = config;
 		mScroller = new OverScroller(context);
+		mFlingPredictor = new OverScroller(context);
 		mLayoutAlgorithm = layoutAlgorithm;
 		setStackScroll(getStackScroll());
 	}
@@ -144,7 +155,7 @@ public class BusinessCardViewScroller {
 	/**
 	 * Animates the stack scroll into bounds
 	 */
-	ObjectAnimator animateBoundScroll() {
+	ValueAnimator animateBoundScroll() {
 		float curScroll = getStackScroll();
 		float newScroll = getBoundedStackScroll(curScroll);
 		if (Float.compare(newScroll, curScroll) != 0) {
@@ -169,36 +180,52 @@ public class BusinessCardViewScroller {
 			stopScroller();
 			stopBoundScrollAnimation();
 
+			if (mScrollAnimator == null) {
+				mScrollAnimator = createScrollAnimator();
+			}
+			mInitialAnimatedScroll = curScroll;
 			mFinalAnimatedScroll = newScroll;
-			mScrollAnimator = ObjectAnimator.ofFloat(this, "stackScroll",
-					curScroll, newScroll);
+			mScrollAnimationEndRunnable = postRunnable;
 			mScrollAnimator.setDuration(mConfig.taskStackScrollDuration);
-			mScrollAnimator
-					.setInterpolator(mConfig.linearOutSlowInInterpolator);
-			mScrollAnimator
-					.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-						@Override
-						public void onAnimationUpdate(ValueAnimator animation) {
-							setStackScroll((Float) animation.getAnimatedValue());
-						}
-					});
-			mScrollAnimator.addListener(new AnimatorListenerAdapter() {
-				@Override
-				public void onAnimationEnd(Animator animation) {
-					if (postRunnable != null) {
-						postRunnable.run();
-					}
-					mScrollAnimator.removeAllListeners();
-				}
-			});
 			mScrollAnimator.start();
 		} else {
 			animateScrollCompat(curScroll, newScroll, postRunnable);
 		}
 	}
 
+	/**
+	 * Creates the scroll animator, which sets the stack scroll directly from
+	 * the animated fraction, without property lookups or boxing.
+	 */
+	ValueAnimator createScrollAnimator() {
+		ValueAnimator animator = ValueAnimator.ofFloat(0f, 1f);
+		// Eased in the update listener
+		animator.setInterpolator(null);
+		animator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
+			@Override
+			public void onAnimationUpdate(ValueAnimator animation) {
+				float fraction = DVUtils.getAnimatedFraction(animation,
+						mConfig.linearOutSlowInInterpolator);
+				setStackScroll(mInitialAnimatedScroll + fraction
+						* (mFinalAnimatedScroll - mInitialAnimatedScroll));
+			}
+		});
+		animator.addListener(new AnimatorListenerAdapter() {
+			@Override
+			public void onAnimationEnd(Animator animation) {
+				Runnable postRunnable = mScrollAnimationEndRunnable;
+				mScrollAnimationEndRunnable = null;
+				if (postRunnable != null) {
+					postRunnable.run();
+				}
+			}
+		});
+		return animator;
+	}
+
 	void animateScrollCompat(float curScroll, float newScroll,
 			final Runnable postRunnable) {
+		mHasFlingTarget = false;
 		mFinalAnimatedScroll = newScroll;
 		setStackScroll(mFinalAnimatedScroll);
 		mScroller.startScroll(0, progressToScrollRange(mFinalAnimatedScroll),
@@ -209,7 +236,11 @@ public class BusinessCardViewScroller {
 	 * Aborts any current stack scrolls
 	 */
 	void stopBoundScrollAnimation() {
-		DVUtils.cancelAnimationWithoutCallbacks(mScrollAnimator);
+		if (mScrollAnimator != null) {
+			// Drop the end runnable, so that it does not run on cancel
+			mScrollAnimationEndRunnable = null;
+			mScrollAnimator.cancel();
+		}
 	}
 
 	/**
@@ -234,6 +265,9 @@ public class BusinessCardViewScroller {
 			if (mCb != null) {
 				mCb.onScrollChanged(scroll);
 			}
+			if (mScroller.isFinished()) {
+				snapToFlingTarget();
+			}
 			return true;
 		}
 
@@ -251,6 +285,7 @@ public class BusinessCardViewScroller {
 	 * Stops the scroller and any current fling.
 	 */
 	void stopScroller() {
+		mHasFlingTarget = false;
 		if (!mScroller.isFinished()) {
 			mScroller.abortAnimation();
 		}
@@ -259,14 +294,122 @@ public class BusinessCardViewScroller {
 	public void scrollToStickPosition() {
 		if(mCb != null){
 			float offset = mCb.getScrollOffset(getStackScroll());
-			Log.e("hjy","scrollToStickPosition" + offset);
-			animateScroll(getStackScroll(), getStackScroll() + offset, new Runnable() {
-				
-				@Override
-				public void run() {
-					//scrollToStickPosition();
-				}
-			});
+			animateScroll(getStackScroll(), getStackScroll() + offset, null);
+		}
+	}
+
+	/**
+	 * Flings the stack so that it comes to rest on the stick position nearest to where the
+	 * fling would have ended, in a single motion.
+	 */
+	public void flingToStickPosition(int velocity, int overscrollDistance) {
+		int startY = progressToScrollRange(getStackScroll());
+		int minY = progressToScrollRange(mLayoutAlgorithm.mMinScrollP);
+		int maxY = progressToScrollRange(mLayoutAlgorithm.mMaxScrollP);
+		if (mCb == null) {
+			startFling(startY, velocity, minY, maxY, overscrollDistance, false, 0);
+			return;
+		}
+
+		// Find the stick position nearest to the predicted end of the fling
+		int finalY = predictFlingFinalY(startY, velocity, minY, maxY,
+				overscrollDistance);
+		if (finalY <= minY || finalY >= maxY) {
+			// The fling ends against a bound, which is where it springs back to anyway
+			startFling(startY, velocity, minY, maxY, overscrollDistance, false, 0);
+			return;
+		}
+		float finalP = scrollRangeToProgress(finalY);
+		int targetY = progressToScrollRange(getBoundedStackScroll(finalP
+				+ mCb.getScrollOffset(finalP)));
+		if (targetY == finalY) {
+			startFling(startY, velocity, minY, maxY, overscrollDistance, true, targetY);
+			return;
+		}
+		if ((targetY - startY > 0) != (velocity > 0) || targetY == startY) {
+			// The fling is too weak to reach the stick position, so just animate to it
+			stopScroller();
+			animateScroll(getStackScroll(), scrollRangeToProgress(targetY), null);
+			return;
+		}
+
+		// The fling distance grows with the velocity, so search for the velocity that lands on the
+		// target. There is no way to set the final position of an OverScroller directly.
+		int sign = velocity > 0 ? 1 : -1;
+		int lo = 0;
+		int hi = Math.abs(velocity);
+		int bestVelocity = velocity;
+		int bestError = Math.abs(finalY - targetY);
+		for (int i = 0; i < FlingSearchMaxGrowth && overshoots(startY, sign * hi, targetY, minY,
+				maxY, overscrollDistance) < 0; i++) {
+			lo = hi;
+			hi *= 2;
+		}
+		while (lo < hi && bestError > 0) {
+			int mid = (lo + hi) >>> 1;
+			int error = overshoots(startY, sign * mid, targetY, minY, maxY,
+					overscrollDistance);
+			if (Math.abs(error) < bestError) {
+				bestError = Math.abs(error);
+				bestVelocity = sign * mid;
+			}
+			if (error < 0) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+		// The search may not land exactly on the target, the rest is snapped when the fling ends
+		startFling(startY, bestVelocity, minY, maxY, overscrollDistance, true, targetY);
+	}
+
+	/**
+	 * Starts the fling on the live scroller, and remembers the stick position to snap to when
+	 * it ends, if any.
+	 */
+	void startFling(int startY, int velocity, int minY, int maxY,
+			int overscrollDistance, boolean hasTarget, int targetY) {
+		mScroller.fling(0, startY, 0, velocity, 0, 0, minY, maxY, 0,
+				overscrollDistance);
+		mHasFlingTarget = hasTarget;
+		mFlingTargetY = targetY;
+	}
+
+	/**
+	 * Returns where a fling with the given velocity would end, computed on a separate scroller so
+	 * that the live scroller is not disturbed.
+	 */
+	int predictFlingFinalY(int startY, int velocity, int minY, int maxY,
+			int overscrollDistance) {
+		mFlingPredictor.fling(0, startY, 0, velocity, 0, 0, minY, maxY, 0,
+				overscrollDistance);
+		int finalY = mFlingPredictor.getFinalY();
+		mFlingPredictor.abortAnimation();
+		return finalY;
+	}
+
+	/**
+	 * Returns how far past the target a fling with the given velocity would end, negative if it
+	 * falls short.
+	 */
+	private int overshoots(int startY, int velocity, int targetY, int minY,
+			int maxY, int overscrollDistance) {
+		int distance = predictFlingFinalY(startY, velocity, minY, maxY,
+				overscrollDistance) - startY;
+		return velocity > 0 ? distance - (targetY - startY) : (targetY - startY)
+				- distance;
+	}
+
+	/**
+	 * Animates the stack onto the stick position of the fling that just ended, if it came to rest
+	 * off the position.
+	 */
+	void snapToFlingTarget() {
+		if (!mHasFlingTarget) return;
+		mHasFlingTarget = false;
+		float targetP = scrollRangeToProgress(mFlingTargetY);
+		if (progressToScrollRange(getStackScroll()) != mFlingTargetY) {
+			animateScroll(getStackScroll(), targetP, null);
 		}
 	}
 }
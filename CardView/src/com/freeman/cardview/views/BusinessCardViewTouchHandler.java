@@ -269,17 +269,11 @@ public class BusinessCardViewTouchHandler {
                     int overscrollRange = (int) (Math.min(1f, overscrollRangePct) *
                             (TaskStackMaxOverscrollRange -
                                     TaskStackMinOverscrollRange));
-                    mScroller.mScroller.fling(0,
-                            mScroller.progressToScrollRange(mScroller.getStackScroll()),
-                            0, velocity,
-                            0, 0,
-                            mScroller.progressToScrollRange(mDeckView.getStackAlgorithm().mMinScrollP),
-                            mScroller.progressToScrollRange(mDeckView.getStackAlgorithm().mMaxScrollP),
-                            0, TaskStackMinOverscrollRange +
-                                    overscrollRange);
-                    mDeckView.startCheckScroll();
-                    // Invalidate to kick off computeScroll
-                    mDeckView.invalidate();
+                    // Fling so that the stack comes to rest on a stick position
+                    mScroller.flingToStickPosition(velocity, TaskStackMinOverscrollRange +
+                            overscrollRange);
+                    // Schedule a frame to start advancing the fling
+                    mDeckView.scheduleFrame();
                 } else if (mScroller.isScrollOutOfBounds()) {
                     // Animate the scroll back into bounds
                     mScroller.animateBoundScroll();
@@ -0,0 +1,62 @@
+package com.freeman.cardview.views;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/* Renders the cards of a BusinessCardView into its task views.
+ *
+ * Binding a card happens in up to two steps.  onBind() runs on the UI thread as soon as the card is
+ * bound to a view, and should only set up what is cheap, a placeholder if need be.  If hasPayload()
+ * returns true, preparePayload() then runs on the payload executor to do the heavy work, such as
+ * decoding or formatting, and onApplyPayload() applies its result on the UI thread, unless the view
+ * was rebound or unbound in the meantime.  onUnbind() is called when the view stops showing the
+ * card, before it is returned to the pool or bound to another card.
+ */
+public abstract class CardBinder<T, P> {
+
+    // The executor shared by the binders that do not provide one
+    static Executor sPayloadExecutor;
+
+    /**
+     * Binds the card to the view, on the UI thread.
+     */
+    public abstract void onBind(BusinessCardChildView<T> view, T item);
+
+    /**
+     * Returns whether the card needs a payload prepared off the UI thread.
+     */
+    public boolean hasPayload(T item) {
+        return false;
+    }
+
+    /**
+     * Prepares the payload of the card, on the payload executor.
+     */
+    public P preparePayload(T item) {
+        return null;
+    }
+
+    /**
+     * Applies the prepared payload to the view that still shows the card, on the UI thread.
+     */
+    public void onApplyPayload(BusinessCardChildView<T> view, T item, P payload) {
+    }
+
+    /**
+     * Releases what was bound to the view for the card, on the UI thread.
+     */
+    public void onUnbind(BusinessCardChildView<T> view, T item) {
+    }
+
+    /**
+     * Returns the executor on which the payloads are prepared.
+     */
+    public Executor getPayloadExecutor() {
+        synchronized (CardBinder.class) {
+            if (sPayloadExecutor == null) {
+                sPayloadExecutor = Executors.newSingleThreadExecutor();
+            }
+            return sPayloadExecutor;
+        }
+    }
+}
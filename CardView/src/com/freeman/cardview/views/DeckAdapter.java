@@ -0,0 +1,131 @@
+package com.freeman.cardview.views;
+
+import java.util.ArrayList;
+
+/* The source of the cards in a BusinessCardView.
+ *
+ * The view only ever asks for the number of cards and for the cards it binds, by position, so an
+ * adapter can be backed by a list, a cursor, a sparse array or a paged source without copying it.
+ * Cards are identified by position, or by id when the adapter has stable ids.  Changes to the deck
+ * are reported to the attached views through the notify methods, as finely as the adapter knows
+ * them, so that the view only relayouts and rebinds what changed.
+ */
+public abstract class DeckAdapter<T> {
+
+    /* Receives the changes made to the deck */
+    public static abstract class DataObserver {
+        /** The whole deck may have changed */
+        public void onChanged() {}
+        /** The cards in the range were inserted */
+        public void onItemRangeInserted(int positionStart, int itemCount) {}
+        /** The cards in the range were removed */
+        public void onItemRangeRemoved(int positionStart, int itemCount) {}
+        /** The card was moved */
+        public void onItemMoved(int fromPosition, int toPosition) {}
+        /** The cards in the range were updated in place */
+        public void onItemRangeChanged(int positionStart, int itemCount) {}
+        /** The following changes belong to one update */
+        public void onBeginBatchUpdate() {}
+        /** The update started by onBeginBatchUpdate() is complete */
+        public void onEndBatchUpdate() {}
+    }
+
+    ArrayList<DataObserver> mObservers = new ArrayList<DataObserver>();
+
+    /**
+     * Returns the number of cards in the deck.
+     */
+    public abstract int getCount();
+
+    /**
+     * Returns the card at the given position.
+     */
+    public abstract T getItem(int position);
+
+    /**
+     * Returns the id of the card at the given position.  Defaults to the position itself.
+     */
+    public long getItemId(int position) {
+        return position;
+    }
+
+    /**
+     * Returns whether the id of each card stays the same as the data set changes, which lets the
+     * view keep the cards that are still in the deck bound across notifyDataSetChanged().
+     */
+    public boolean hasStableIds() {
+        return false;
+    }
+
+    public void registerDataObserver(DataObserver observer) {
+        if (!mObservers.contains(observer)) {
+            mObservers.add(observer);
+        }
+    }
+
+    public void unregisterDataObserver(DataObserver observer) {
+        mObservers.remove(observer);
+    }
+
+    /**
+     * Notifies the observers that the whole deck may have changed.  Prefer the item notifications
+     * when the change is known.
+     */
+    public void notifyDataSetChanged() {
+        for (int i = mObservers.size() - 1; i >= 0; i--) {
+            mObservers.get(i).onChanged();
+        }
+    }
+
+    public void notifyItemInserted(int position) {
+        notifyItemRangeInserted(position, 1);
+    }
+
+    public void notifyItemRangeInserted(int positionStart, int itemCount) {
+        for (int i = mObservers.size() - 1; i >= 0; i--) {
+            mObservers.get(i).onItemRangeInserted(positionStart, itemCount);
+        }
+    }
+
+    public void notifyItemRemoved(int position) {
+        notifyItemRangeRemoved(position, 1);
+    }
+
+    public void notifyItemRangeRemoved(int positionStart, int itemCount) {
+        for (int i = mObservers.size() - 1; i >= 0; i--) {
+            mObservers.get(i).onItemRangeRemoved(positionStart, itemCount);
+        }
+    }
+
+    public void notifyItemMoved(int fromPosition, int toPosition) {
+        for (int i = mObservers.size() - 1; i >= 0; i--) {
+            mObservers.get(i).onItemMoved(fromPosition, toPosition);
+        }
+    }
+
+    public void notifyItemChanged(int position) {
+        notifyItemRangeChanged(position, 1);
+    }
+
+    public void notifyItemRangeChanged(int positionStart, int itemCount) {
+        for (int i = mObservers.size() - 1; i >= 0; i--) {
+            mObservers.get(i).onItemRangeChanged(positionStart, itemCount);
+        }
+    }
+
+    /**
+     * Starts a batch of item notifications, which the views apply as a single update.  Must be
+     * balanced by endBatchUpdate().
+     */
+    public void beginBatchUpdate() {
+        for (int i = mObservers.size() - 1; i >= 0; i--) {
+            mObservers.get(i).onBeginBatchUpdate();
+        }
+    }
+
+    public void endBatchUpdate() {
+        for (int i = mObservers.size() - 1; i >= 0; i--) {
+            mObservers.get(i).onEndBatchUpdate();
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.freeman.cardview.views;
+
+import java.util.List;
+
+import com.freeman.cardview.utilities.LongHashMap;
+
+/* The item changes that turn one list of cards into another.
+ *
+ * Cards are matched by id.  Cards that are only in the old list are removed, cards that are only in
+ * the new list are inserted, and of the cards in both lists only those outside the longest
+ * subsequence already in the new order are moved.  The changes are recorded with the positions
+ * that they have when they are applied in order, removes first, then moves, inserts and finally
+ * the in-place changes, so that they can be replayed through the adapter notifications.  This
+ * does not touch any views, so it can be computed off the UI thread.
+ */
+public class DeckDiff {
+
+    static final int OpRemove = 0;
+    static final int OpMove = 1;
+    static final int OpInsert = 2;
+    static final int OpChange = 3;
+
+    /* Identifies the cards and compares their contents */
+    public static abstract class ItemCallback<T> {
+        /**
+         * Returns the id of the card, which must be unique within a list.
+         */
+        public abstract long getItemId(T item);
+
+        /**
+         * Returns whether the card with the same id needs to be rebound.
+         */
+        public abstract boolean areContentsTheSame(T oldItem, T newItem);
+    }
+
+    // The changes, as (op, position, count or target position) triplets
+    int[] mOps = new int[3 * 8];
+    int mOpCount;
+
+    /**
+     * Computes the changes that turn the old list into the new list.
+     */
+    public static <T> DeckDiff calculateDiff(List<T> oldList, List<T> newList,
+                                             ItemCallback<T> callback) {
+        DeckDiff diff = new DeckDiff();
+        int oldCount = oldList.size();
+        int newCount = newList.size();
+
+        // Match the old cards to the new cards by id
+        LongHashMap<Integer> newPositions = new LongHashMap<Integer>(newCount);
+        for (int i = newCount - 1; i >= 0; i--) {
+            newPositions.put(callback.getItemId(newList.get(i)), i);
+        }
+        int[] oldToNew = new int[oldCount];
+        boolean[] newMatched = new boolean[newCount];
+        int commonCount = 0;
+        for (int i = 0; i < oldCount; i++) {
+            Integer newPosition = newPositions.get(callback.getItemId(oldList.get(i)));
+            if (newPosition != null && !newMatched[newPosition]) {
+                oldToNew[i] = newPosition;
+                newMatched[newPosition] = true;
+                commonCount++;
+            } else {
+                oldToNew[i] = -1;
+            }
+        }
+
+        // Remove from the back, so that the positions of the earlier removes stay valid
+        for (int i = oldCount - 1; i >= 0; i--) {
+            if (oldToNew[i] == -1) {
+                int end = i;
+                while (i > 0 && oldToNew[i - 1] == -1) {
+                    i--;
+                }
+                diff.addOp(OpRemove, i, end - i + 1);
+            }
+        }
+
+        // The common cards, by their new positions, in their old order
+        int[] current = new int[commonCount];
+        for (int i = 0, j = 0; i < oldCount; i++) {
+            if (oldToNew[i] != -1) {
+                current[j++] = oldToNew[i];
+            }
+        }
+
+        // Keep the cards that are already in order, and move each of the others right after the
+        // card that precedes it in the new list
+        boolean[] inOrder = longestIncreasingSubsequence(current, newCount);
+        int prevPosition = -1;
+        for (int i = 0; i < newCount; i++) {
+            if (!newMatched[i]) continue;
+            if (!inOrder[i]) {
+                int from = indexOf(current, i);
+                int to = prevPosition == -1 ? 0 : indexOf(current, prevPosition) + 1;
+                if (from < to) {
+                    to--;
+                }
+                if (from != to) {
+                    moveElement(current, from, to);
+                    diff.addOp(OpMove, from, to);
+                }
+            }
+            prevPosition = i;
+        }
+
+        // Insert from the front, every card before an insert is then already in place
+        for (int i = 0; i < newCount; i++) {
+            if (!newMatched[i]) {
+                int start = i;
+                while (i + 1 < newCount && !newMatched[i + 1]) {
+                    i++;
+                }
+                diff.addOp(OpInsert, start, i - start + 1);
+            }
+        }
+
+        // Rebind the common cards whose contents changed, at their new positions
+        boolean[] changed = new boolean[newCount];
+        for (int i = 0; i < oldCount; i++) {
+            if (oldToNew[i] != -1
+                    && !callback.areContentsTheSame(oldList.get(i), newList.get(oldToNew[i]))) {
+                changed[oldToNew[i]] = true;
+            }
+        }
+        for (int i = 0; i < newCount; i++) {
+            if (changed[i]) {
+                int start = i;
+                while (i + 1 < newCount && changed[i + 1]) {
+                    i++;
+                }
+                diff.addOp(OpChange, start, i - start + 1);
+            }
+        }
+        return diff;
+    }
+
+    /**
+     * Replays the changes through the adapter notifications, as a single batch update.  The batch
+     * is sent even if nothing changed, so that the stack picks up the new objects of its cards.
+     */
+    public void dispatchUpdatesTo(DeckAdapter<?> adapter) {
+        adapter.beginBatchUpdate();
+        for (int i = 0; i < mOpCount; i++) {
+            int op = mOps[3 * i];
+            int a = mOps[3 * i + 1];
+            int b = mOps[3 * i + 2];
+            switch (op) {
+                case OpRemove:
+                    adapter.notifyItemRangeRemoved(a, b);
+                    break;
+                case OpMove:
+                    adapter.notifyItemMoved(a, b);
+                    break;
+                case OpInsert:
+                    adapter.notifyItemRangeInserted(a, b);
+                    break;
+                case OpChange:
+                    adapter.notifyItemRangeChanged(a, b);
+                    break;
+            }
+        }
+        adapter.endBatchUpdate();
+    }
+
+    void addOp(int op, int a, int b) {
+        if (3 * (mOpCount + 1) > mOps.length) {
+            int[] ops = new int[mOps.length * 2];
+            System.arraycopy(mOps, 0, ops, 0, mOps.length);
+            mOps = ops;
+        }
+        mOps[3 * mOpCount] = op;
+        mOps[3 * mOpCount + 1] = a;
+        mOps[3 * mOpCount + 2] = b;
+        mOpCount++;
+    }
+
+    /**
+     * Returns, indexed by value, which of the distinct values in the sequence are on one of its
+     * longest increasing subsequences.
+     */
+    static boolean[] longestIncreasingSubsequence(int[] values, int valueRange) {
+        int count = values.length;
+        // The index of the smallest tail of an increasing subsequence of each length, and the
+        // index of the element before each element on its subsequence
+        int[] tails = new int[count];
+        int[] prev = new int[count];
+        int length = 0;
+        for (int i = 0; i < count; i++) {
+            int lo = 0;
+            int hi = length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (values[tails[mid]] < values[i]) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            prev[i] = lo > 0 ? tails[lo - 1] : -1;
+            tails[lo] = i;
+            if (lo == length) {
+                length++;
+            }
+        }
+        boolean[] inSequence = new boolean[valueRange];
+        for (int i = length > 0 ? tails[length - 1] : -1; i != -1; i = prev[i]) {
+            inSequence[values[i]] = true;
+        }
+        return inSequence;
+    }
+
+    static int indexOf(int[] values, int value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == value) return i;
+        }
+        return -1;
+    }
+
+    static void moveElement(int[] values, int from, int to) {
+        int value = values[from];
+        if (from < to) {
+            System.arraycopy(values, from + 1, values, from, to - from);
+        } else {
+            System.arraycopy(values, to, values, to + 1, from - to);
+        }
+        values[to] = value;
+    }
+}
@@ -0,0 +1,155 @@
+package com.freeman.cardview.views;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import android.os.Handler;
+import android.os.Looper;
+
+/* A DeckAdapter over a list that is replaced as a whole.
+ *
+ * submitList() diffs the new list against the current one on a background executor, then swaps the
+ * list and replays the diff through the item notifications on the UI thread, so the cards that are
+ * still in the deck keep their views, their loaded data and their place in the stack.  Cards are
+ * identified by the ids given by the ItemCallback, so the adapter always has stable ids.
+ * removeItem() applies a single removal immediately instead, for a card that the user dismissed.
+ */
+public class ListDeckAdapter<T> extends DeckAdapter<T> {
+
+    // The executor shared by the adapters that are not given one
+    static Executor sDiffExecutor;
+
+    DeckDiff.ItemCallback<T> mItemCallback;
+    Executor mDiffExecutor;
+    Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    List<T> mList = Collections.emptyList();
+    // Incremented for every submitted list, so that the diffs of superseded lists are dropped
+    int mMaxScheduledGeneration;
+    // The last submitted list, while it is being diffed
+    List<T> mPendingList;
+
+    public ListDeckAdapter(DeckDiff.ItemCallback<T> itemCallback) {
+        this(itemCallback, null);
+    }
+
+    public ListDeckAdapter(DeckDiff.ItemCallback<T> itemCallback, Executor diffExecutor) {
+        mItemCallback = itemCallback;
+        mDiffExecutor = diffExecutor != null ? diffExecutor : getDefaultDiffExecutor();
+    }
+
+    static synchronized Executor getDefaultDiffExecutor() {
+        if (sDiffExecutor == null) {
+            sDiffExecutor = Executors.newSingleThreadExecutor();
+        }
+        return sDiffExecutor;
+    }
+
+    @Override
+    public int getCount() {
+        return mList.size();
+    }
+
+    @Override
+    public T getItem(int position) {
+        return mList.get(position);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return mItemCallback.getItemId(mList.get(position));
+    }
+
+    @Override
+    public boolean hasStableIds() {
+        return true;
+    }
+
+    /**
+     * Returns the list that is currently shown.  It must not be modified.
+     */
+    public List<T> getCurrentList() {
+        return mList;
+    }
+
+    /**
+     * Replaces the list of cards.  The list is copied, and the change is applied once it has been
+     * diffed against the current list, unless another list was submitted in the meantime.
+     */
+    public void submitList(List<T> newList) {
+        final int generation = ++mMaxScheduledGeneration;
+        final List<T> list = newList != null ? new ArrayList<T>(newList)
+                : Collections.<T>emptyList();
+        final List<T> oldList = mList;
+
+        // Nothing to match, the whole deck is inserted or removed
+        if (oldList.isEmpty() || list.isEmpty()) {
+            mPendingList = null;
+            int oldCount = oldList.size();
+            mList = list;
+            if (oldCount > 0) {
+                notifyItemRangeRemoved(0, oldCount);
+            }
+            if (!list.isEmpty()) {
+                notifyItemRangeInserted(0, list.size());
+            }
+            return;
+        }
+
+        mPendingList = list;
+        mDiffExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final DeckDiff diff = DeckDiff.calculateDiff(oldList, list, mItemCallback);
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation == mMaxScheduledGeneration) {
+                            mPendingList = null;
+                            mList = list;
+                            diff.dispatchUpdatesTo(ListDeckAdapter.this);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Removes the card with the same id as the given one right away, and returns whether it was in
+     * the list.  The stack is notified before this returns, so a dismissed card cannot be bound
+     * again while a diff is computed.  A list that is still being diffed is diffed again without
+     * the card, against the list after the removal.
+     */
+    public boolean removeItem(T item) {
+        long itemId = mItemCallback.getItemId(item);
+        int position = indexOfItemId(mList, itemId);
+        if (position == -1) return false;
+
+        List<T> list = new ArrayList<T>(mList);
+        list.remove(position);
+        mList = list;
+        notifyItemRemoved(position);
+
+        if (mPendingList != null) {
+            List<T> pendingList = new ArrayList<T>(mPendingList);
+            int pendingPosition = indexOfItemId(pendingList, itemId);
+            if (pendingPosition != -1) {
+                pendingList.remove(pendingPosition);
+            }
+            submitList(pendingList);
+        }
+        return true;
+    }
+
+    int indexOfItemId(List<T> list, long itemId) {
+        int count = list.size();
+        for (int i = 0; i < count; i++) {
+            if (mItemCallback.getItemId(list.get(i)) == itemId) return i;
+        }
+        return -1;
+    }
+}
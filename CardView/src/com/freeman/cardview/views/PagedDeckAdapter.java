@@ -0,0 +1,171 @@
+package com.freeman.cardview.views;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.SparseBooleanArray;
+
+/* A DeckAdapter over a deck that is too large to keep in memory.
+ *
+ * The cards are loaded in pages from a PageSource on a background executor, as the stack binds the
+ * cards around its visible window, and only the most recently used pages are kept.  The positions
+ * on pages that are not loaded are placeholders: getItem() returns null for them, and once their
+ * page arrives only those positions are notified as changed, so the stack rebinds the visible
+ * placeholders without relayouting.  A queued page that is no longer near the most recently
+ * requested page when its turn comes is skipped, so a fast fling does not leave the pages around
+ * where it stops waiting behind the pages it passed.
+ */
+public class PagedDeckAdapter<T> extends DeckAdapter<T> {
+
+    // The executor shared by the adapters that are not given one
+    static Executor sPageExecutor;
+
+    /* Loads the cards of the deck */
+    public interface PageSource<T> {
+        /**
+         * Returns the number of cards in the deck.  Called on the UI thread.
+         */
+        public int getCount();
+
+        /**
+         * Loads the cards in the given range, or returns null if they could not be loaded.  Called
+         * on the background executor.
+         */
+        public List<T> loadRange(int startPosition, int loadCount);
+    }
+
+    PageSource<T> mSource;
+    Executor mPageExecutor;
+    Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    int mPageSize;
+    int mMaxPages;
+    // The number of pages to load on each side of the page of a bound card
+    int mPrefetchPages = 1;
+    int mCount;
+    // The loaded pages, least recently used first
+    LinkedHashMap<Integer, List<T>> mPages;
+    SparseBooleanArray mLoadingPages = new SparseBooleanArray();
+    // The page of the most recently requested card, read by the page executor
+    volatile int mRequestedPage;
+    // Incremented when the deck is invalidated, so that the pages loaded before are dropped
+    int mGeneration;
+
+    public PagedDeckAdapter(PageSource<T> source, int pageSize, int maxPages) {
+        this(source, pageSize, maxPages, null);
+    }
+
+    public PagedDeckAdapter(PageSource<T> source, int pageSize, int maxPages,
+                            Executor pageExecutor) {
+        mSource = source;
+        mPageSize = Math.max(1, pageSize);
+        // Keep at least the page being bound and the pages prefetched around it
+        mMaxPages = Math.max(1 + 2 * mPrefetchPages, maxPages);
+        mPageExecutor = pageExecutor != null ? pageExecutor : getDefaultPageExecutor();
+        mPages = new LinkedHashMap<Integer, List<T>>(mMaxPages * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> eldest) {
+                return size() > mMaxPages;
+            }
+        };
+        mCount = source.getCount();
+    }
+
+    static synchronized Executor getDefaultPageExecutor() {
+        if (sPageExecutor == null) {
+            sPageExecutor = Executors.newSingleThreadExecutor();
+        }
+        return sPageExecutor;
+    }
+
+    @Override
+    public int getCount() {
+        return mCount;
+    }
+
+    /**
+     * Returns the card at the given position, or null if its page is not loaded yet, in which case
+     * the page and its neighbours are loaded.
+     */
+    @Override
+    public T getItem(int position) {
+        int page = position / mPageSize;
+        mRequestedPage = page;
+        loadAround(page);
+        List<T> items = mPages.get(page);
+        int offset = position - page * mPageSize;
+        if (items == null || offset >= items.size()) {
+            return null;
+        }
+        return items.get(offset);
+    }
+
+    /**
+     * Returns whether the card at the given position is loaded, without loading it.
+     */
+    public boolean isLoaded(int position) {
+        return mPages.containsKey(position / mPageSize);
+    }
+
+    /**
+     * Drops all the loaded pages and reloads the deck, after the source has changed.
+     */
+    public void invalidate() {
+        mGeneration++;
+        mPages.clear();
+        mLoadingPages.clear();
+        mCount = mSource.getCount();
+        notifyDataSetChanged();
+    }
+
+    void loadAround(int page) {
+        int pageCount = (mCount + mPageSize - 1) / mPageSize;
+        int first = Math.max(0, page - mPrefetchPages);
+        int last = Math.min(pageCount - 1, page + mPrefetchPages);
+        for (int p = first; p <= last; p++) {
+            if (!mPages.containsKey(p) && !mLoadingPages.get(p)) {
+                loadPage(p);
+            }
+        }
+    }
+
+    boolean isNearRequestedPage(int page) {
+        return Math.abs(page - mRequestedPage) <= mPrefetchPages;
+    }
+
+    void loadPage(final int page) {
+        final int generation = mGeneration;
+        final int startPosition = page * mPageSize;
+        final int loadCount = Math.min(mPageSize, mCount - startPosition);
+        mLoadingPages.put(page, true);
+        mPageExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                // Skip the page if the stack has moved away from it since it was queued
+                final boolean skipped = !isNearRequestedPage(page);
+                final List<T> items = skipped ? null
+                        : mSource.loadRange(startPosition, loadCount);
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (generation != mGeneration) return;
+                        mLoadingPages.delete(page);
+                        if (skipped && isNearRequestedPage(page)) {
+                            // The stack came back to the page in the meantime
+                            loadPage(page);
+                            return;
+                        }
+                        if (items == null) return;
+                        mPages.put(page, items);
+                        notifyItemRangeChanged(startPosition, Math.min(loadCount, items.size()));
+                    }
+                });
+            }
+        });
+    }
+}
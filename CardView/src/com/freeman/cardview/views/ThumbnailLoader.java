@@ -0,0 +1,250 @@
+package com.freeman.cardview.views;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.widget.ImageView;
+
+/* Loads the thumbnails of the cards into their task views.
+ *
+ * Thumbnails are decoded by a ThumbnailSource on a background executor and kept in a memory cache
+ * that is bounded by the size of its bitmaps and evicts the least recently used ones first.  The
+ * task views that ask for the same thumbnail share one decode.  A request is cancelled as soon as
+ * its task view is unbound, when it is returned to the view pool or bound to another card, and a
+ * decode that no task view waits for anymore is cancelled as well, so stale decodes neither waste
+ * time nor land on the wrong card.  Everything but the decode runs on the UI thread.
+ */
+public class ThumbnailLoader<T> {
+
+    static final int DefaultDecodeThreadCount = 2;
+
+    // The executor shared by the loaders that are not given one
+    static ExecutorService sDecodeExecutor;
+
+    /* Decodes the thumbnails of the cards */
+    public interface ThumbnailSource<T> {
+        /**
+         * Returns the key under which the thumbnail of the card is cached, cards with the same
+         * thumbnail can share a key.  Returns null to not cache the thumbnail.  Called on the UI
+         * thread.
+         */
+        public Object getCacheKey(T item);
+
+        /**
+         * Decodes the thumbnail of the card, or returns null if it could not be decoded.  Called
+         * on the decode executor.
+         */
+        public Bitmap decodeThumbnail(T item);
+    }
+
+    ThumbnailSource<T> mSource;
+    ExecutorService mDecodeExecutor;
+    Handler mMainHandler = new Handler(Looper.getMainLooper());
+    Bitmap mPlaceholder;
+
+    // The cached thumbnails, least recently used first
+    LinkedHashMap<Object, Bitmap> mCache = new LinkedHashMap<Object, Bitmap>(16, 0.75f, true);
+    int mCacheSize;
+    int mMaxCacheSize;
+    // The decodes in flight, by cache key
+    HashMap<Object, Decode> mDecodes = new HashMap<Object, Decode>();
+
+    public ThumbnailLoader(ThumbnailSource<T> source, int maxCacheSizeBytes) {
+        this(source, maxCacheSizeBytes, null);
+    }
+
+    public ThumbnailLoader(ThumbnailSource<T> source, int maxCacheSizeBytes,
+                           ExecutorService decodeExecutor) {
+        mSource = source;
+        mMaxCacheSize = maxCacheSizeBytes;
+        mDecodeExecutor = decodeExecutor != null ? decodeExecutor : getDefaultDecodeExecutor();
+    }
+
+    static synchronized ExecutorService getDefaultDecodeExecutor() {
+        if (sDecodeExecutor == null) {
+            sDecodeExecutor = Executors.newFixedThreadPool(DefaultDecodeThreadCount);
+        }
+        return sDecodeExecutor;
+    }
+
+    /**
+     * Returns a cache size of an eighth of the memory available to the app.
+     */
+    public static int getDefaultCacheSize() {
+        return (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 8);
+    }
+
+    /**
+     * Returns the largest power of two by which an image can be subsampled while keeping it at
+     * least as large as the requested size, for BitmapFactory.Options.inSampleSize.
+     */
+    public static int calculateInSampleSize(int width, int height, int reqWidth, int reqHeight) {
+        int inSampleSize = 1;
+        while (width / (inSampleSize * 2) >= reqWidth && height / (inSampleSize * 2) >= reqHeight) {
+            inSampleSize *= 2;
+        }
+        return inSampleSize;
+    }
+
+    /**
+     * Sets the bitmap that is shown while a thumbnail is decoded.
+     */
+    public void setPlaceholder(Bitmap placeholder) {
+        mPlaceholder = placeholder;
+    }
+
+    /**
+     * Loads the thumbnail of the card into the thumbnail view of the task view, from the cache if
+     * possible, and cancels the previous request of the task view.  The task view must be bound to
+     * the card.
+     */
+    public void loadThumbnail(BusinessCardChildView<T> view, T item) {
+        view.cancelThumbnailRequest();
+
+        Object key = mSource.getCacheKey(item);
+        Bitmap cached = key != null ? mCache.get(key) : null;
+        if (cached != null) {
+            setThumbnail(view, cached);
+            return;
+        }
+        setThumbnail(view, mPlaceholder);
+
+        // Join the decode of the same thumbnail if there is one
+        Decode decode = key != null ? mDecodes.get(key) : null;
+        if (decode == null) {
+            decode = new Decode(key, item);
+            if (key != null) {
+                mDecodes.put(key, decode);
+            }
+            decode.mFuture = mDecodeExecutor.submit(decode);
+        }
+        Request request = new Request(decode, view);
+        decode.mRequests.add(request);
+        view.mThumbnailRequest = request;
+    }
+
+    /**
+     * Returns the cached thumbnail for the key, if any.
+     */
+    public Bitmap getCachedThumbnail(Object key) {
+        return mCache.get(key);
+    }
+
+    /**
+     * Drops all the cached thumbnails.
+     */
+    public void clearCache() {
+        mCache.clear();
+        mCacheSize = 0;
+    }
+
+    void putInCache(Object key, Bitmap bitmap) {
+        Bitmap prev = mCache.put(key, bitmap);
+        if (prev != null) {
+            mCacheSize -= getBitmapSize(prev);
+        }
+        mCacheSize += getBitmapSize(bitmap);
+
+        // Evict the least recently used thumbnails, keeping at least the new one
+        Iterator<Map.Entry<Object, Bitmap>> iter = mCache.entrySet().iterator();
+        while (mCacheSize > mMaxCacheSize && mCache.size() > 1 && iter.hasNext()) {
+            Map.Entry<Object, Bitmap> eldest = iter.next();
+            if (eldest.getKey().equals(key)) continue;
+            mCacheSize -= getBitmapSize(eldest.getValue());
+            iter.remove();
+        }
+    }
+
+    static int getBitmapSize(Bitmap bitmap) {
+        // Bitmap.getByteCount() is only available from API 12
+        return bitmap.getRowBytes() * bitmap.getHeight();
+    }
+
+    static void setThumbnail(BusinessCardChildView<?> view, Bitmap bitmap) {
+        ImageView thumbnailView = view.getThumbnailView();
+        if (thumbnailView != null) {
+            thumbnailView.setImageBitmap(bitmap);
+        }
+    }
+
+    void onDecoded(Decode decode, Bitmap bitmap) {
+        if (decode.mKey != null && mDecodes.get(decode.mKey) == decode) {
+            mDecodes.remove(decode.mKey);
+        }
+        if (bitmap != null && decode.mKey != null) {
+            putInCache(decode.mKey, bitmap);
+        }
+        int requestCount = decode.mRequests.size();
+        for (int i = 0; i < requestCount; i++) {
+            decode.mRequests.get(i).deliver(bitmap);
+        }
+        decode.mRequests.clear();
+    }
+
+    /* A decode of a thumbnail, shared by the requests for it */
+    class Decode implements Runnable {
+        Object mKey;
+        T mItem;
+        Future<?> mFuture;
+        ArrayList<Request> mRequests = new ArrayList<Request>(1);
+
+        Decode(Object key, T item) {
+            mKey = key;
+            mItem = item;
+        }
+
+        @Override
+        public void run() {
+            final Bitmap bitmap = mSource.decodeThumbnail(mItem);
+            mMainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    onDecoded(Decode.this, bitmap);
+                }
+            });
+        }
+    }
+
+    /* The request of a task view for the thumbnail of its card */
+    class Request {
+        Decode mDecode;
+        BusinessCardChildView<T> mView;
+
+        Request(Decode decode, BusinessCardChildView<T> view) {
+            mDecode = decode;
+            mView = view;
+        }
+
+        /**
+         * Cancels the request, and its decode if no other request waits for it.
+         */
+        void cancel() {
+            if (!mDecode.mRequests.remove(this)) return;
+            if (mDecode.mRequests.isEmpty()) {
+                mDecode.mFuture.cancel(false);
+                if (mDecode.mKey != null && mDecodes.get(mDecode.mKey) == mDecode) {
+                    mDecodes.remove(mDecode.mKey);
+                }
+            }
+        }
+
+        void deliver(Bitmap bitmap) {
+            // The request is cancelled whenever the view is unbound, so a view that still holds it
+            // shows the same card, even if its key was refreshed to a new object of the card
+            if (mView.mThumbnailRequest != this) return;
+            mView.mThumbnailRequest = null;
+            if (bitmap != null) {
+                setThumbnail(mView, bitmap);
+            }
+        }
+    }
+}
@@ -4,31 +4,32 @@ import android.annotation.TargetApi;
 import android.content.Context;
 import android.os.Build;
 
+import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.LinkedList;
 
 /* A view pool to manage more views than we can visibly handle */
-public class ViewPool<V, T> {
+public class ViewPool<V> {
 
     /* An interface to the consumer of a view pool */
-    public interface ViewPoolConsumer<V, T> {
+    public interface ViewPoolConsumer<V> {
         public V createView(Context context);
 
         public void prepareViewToEnterPool(V v);
 
-        public void prepareViewToLeavePool(V v, T prepareData, boolean isNewView);
+        public void prepareViewToLeavePool(V v, int position, boolean isNewView);
 
-        public boolean hasPreferredData(V v, T preferredData);
+        public boolean hasPreferredData(V v, long preferredId);
     }
 
     Context mContext;
-    ViewPoolConsumer<V, T> mViewCreator;
-    LinkedList<V> mPool = new LinkedList<V>();
+    ViewPoolConsumer<V> mViewCreator;
+    // The pooled views, the most recently returned view is last
+    ArrayList<V> mPool = new ArrayList<V>();
 
     /**
      * Initializes the pool with a fixed predetermined pool size
      */
-    public ViewPool(Context context, ViewPoolConsumer<V, T> viewCreator) {
+    public ViewPool(Context context, ViewPoolConsumer<V> viewCreator) {
         mContext = context;
         mViewCreator = viewCreator;
     }
@@ -39,36 +40,34 @@ public class ViewPool<V, T> {
     @TargetApi(Build.VERSION_CODES.GINGERBREAD)
 	void returnViewToPool(V v) {
         mViewCreator.prepareViewToEnterPool(v);
-        mPool.push(v);
+        mPool.add(v);
     }
 
     /**
-     * Gets a view from the pool and prepares it
+     * Gets a view from the pool, preferring one that was last bound to the given id, and
+     * prepares it for the given adapter position
      */
     @TargetApi(Build.VERSION_CODES.GINGERBREAD)
-	V pickUpViewFromPool(T preferredData, T prepareData) {
+	V pickUpViewFromPool(long preferredId, int position) {
         V v = null;
         boolean isNewView = false;
         if (mPool.isEmpty()) {
             v = mViewCreator.createView(mContext);
             isNewView = true;
         } else {
-            // Try and find a preferred view
-            Iterator<V> iter = mPool.iterator();
-            while (iter.hasNext()) {
-                V vpv = iter.next();
-                if (mViewCreator.hasPreferredData(vpv, preferredData)) {
-                    v = vpv;
-                    iter.remove();
+            // Try and find a preferred view, starting with the most recently returned one
+            for (int i = mPool.size() - 1; i >= 0; i--) {
+                if (mViewCreator.hasPreferredData(mPool.get(i), preferredId)) {
+                    v = mPool.remove(i);
                     break;
                 }
             }
-            // Otherwise, just grab the first view
+            // Otherwise, just grab the most recently returned view
             if (v == null) {
-                v = mPool.pop();
+                v = mPool.remove(mPool.size() - 1);
             }
         }
-        mViewCreator.prepareViewToLeavePool(v, prepareData, isNewView);
+        mViewCreator.prepareViewToLeavePool(v, position, isNewView);
         return v;
     }
 
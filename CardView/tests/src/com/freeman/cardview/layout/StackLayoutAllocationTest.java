@@ -0,0 +1,63 @@
+package com.freeman.cardview.layout;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+
+import org.junit.Test;
+
+/* Checks that computing the stack transforms for a frame does not allocate, once the transform
+ * buffer has grown to the size of the visible window.
+ */
+public class StackLayoutAllocationTest {
+
+    static final int TaskCount = 1000;
+    static final int Frames = 2000;
+
+    @Test
+    public void computeStackTransformsDoesNotAllocate() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threadBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        StackLayout layout = StackLayoutTest.createLayout(TaskCount);
+        StackTransformBuffer transforms = new StackTransformBuffer();
+        StackTransform tmpTransform = new StackTransform();
+        int[] visibleRange = new int[2];
+        float minScroll = layout.getMinScrollP();
+        float maxScroll = layout.getMaxScrollP();
+
+        // Sweep once to grow the buffer to the largest visible window
+        sweep(layout, transforms, tmpTransform, visibleRange, minScroll, maxScroll);
+
+        // The bytes allocated by reading the counter itself
+        long overhead = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            long start = threadBean.getThreadAllocatedBytes(threadId);
+            overhead = Math.min(overhead, threadBean.getThreadAllocatedBytes(threadId) - start);
+        }
+
+        for (int frame = 0; frame < Frames; frame++) {
+            float stackScroll = minScroll + (maxScroll - minScroll) * frame / (Frames - 1);
+            long start = threadBean.getThreadAllocatedBytes(threadId);
+            layout.computeStackTransforms(stackScroll, transforms, tmpTransform, visibleRange,
+                    false);
+            long allocated = threadBean.getThreadAllocatedBytes(threadId) - start - overhead;
+            assertEquals("bytes allocated at scroll " + stackScroll, 0L, allocated);
+        }
+    }
+
+    static void sweep(StackLayout layout, StackTransformBuffer transforms,
+                      StackTransform tmpTransform, int[] visibleRange, float minScroll,
+                      float maxScroll) {
+        for (int frame = 0; frame < Frames; frame++) {
+            float stackScroll = minScroll + (maxScroll - minScroll) * frame / (Frames - 1);
+            layout.computeStackTransforms(stackScroll, transforms, tmpTransform, visibleRange,
+                    false);
+        }
+    }
+}
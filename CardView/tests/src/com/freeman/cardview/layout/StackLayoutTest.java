@@ -0,0 +1,153 @@
+package com.freeman.cardview.layout;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/* Checks the closed form visible range and nearest task lookups of the stack layout against the
+ * walk of the whole stack that they replace.
+ */
+public class StackLayoutTest {
+
+    static final int ScreenWidth = 1080;
+    static final int ScreenHeight = 1920;
+    static final int[] TaskCounts = {0, 1, 2, 3, 10, 500};
+    static final int ScrollSteps = 400;
+
+    static StackLayout createLayout(int taskCount) {
+        StackLayout layout = new StackLayout();
+        layout.setLayoutParams(0.03333f, 48, 240, 60, 240);
+        layout.computeRects(ScreenWidth, ScreenHeight, 0, 0, ScreenWidth, ScreenHeight);
+        layout.computeMinMaxScroll(taskCount, false, false);
+        return layout;
+    }
+
+    /**
+     * Returns the visible range by walking the stack from the front, as the stack did before the
+     * range was computed from the curve.
+     */
+    static boolean walkVisibleRange(StackLayout layout, float stackScroll, int[] rangeOut) {
+        int frontMostVisibleIndex = -1;
+        int backMostVisibleIndex = -1;
+        StackTransform transform = new StackTransform();
+        StackTransform prevTransform = null;
+        for (int i = layout.getTaskCount() - 1; i >= 0; i--) {
+            transform = layout.getStackTransform(i, stackScroll, transform, prevTransform);
+            if (transform.visible) {
+                if (frontMostVisibleIndex < 0) {
+                    frontMostVisibleIndex = i;
+                }
+                backMostVisibleIndex = i;
+            } else if (backMostVisibleIndex != -1) {
+                break;
+            }
+            // Alternate between two transforms so that the previous one is kept
+            StackTransform next = prevTransform != null ? prevTransform : new StackTransform();
+            prevTransform = transform;
+            transform = next;
+        }
+        rangeOut[0] = frontMostVisibleIndex;
+        rangeOut[1] = backMostVisibleIndex;
+        return frontMostVisibleIndex != -1 && backMostVisibleIndex != -1;
+    }
+
+    /**
+     * Returns the task nearest to the translation by checking every task in the range, preferring
+     * the front most task on ties.
+     */
+    static int scanNearestTask(StackLayout layout, float stackScroll, int translationY,
+                               int frontIndex, int backIndex) {
+        int nearestIndex = frontIndex;
+        int nearestDistance = Integer.MAX_VALUE;
+        for (int i = frontIndex; i >= backIndex; i--) {
+            int distance = Math.abs(layout.getTaskTranslationY(i, stackScroll) - translationY);
+            if (distance < nearestDistance) {
+                nearestIndex = i;
+                nearestDistance = distance;
+            }
+        }
+        return nearestIndex;
+    }
+
+    /**
+     * Returns the scrolls to check: the min and max scroll, a sweep between them, and a little
+     * past both ends.
+     */
+    static float[] getScrolls(StackLayout layout) {
+        float min = layout.getMinScrollP();
+        float max = layout.getMaxScrollP();
+        float overscroll = 0.5f;
+        float[] scrolls = new float[ScrollSteps + 5];
+        for (int i = 0; i <= ScrollSteps; i++) {
+            scrolls[i] = min + (max - min) * i / ScrollSteps;
+        }
+        scrolls[ScrollSteps + 1] = min;
+        scrolls[ScrollSteps + 2] = max;
+        scrolls[ScrollSteps + 3] = min - overscroll;
+        scrolls[ScrollSteps + 4] = max + overscroll;
+        return scrolls;
+    }
+
+    @Test
+    public void visibleRangeMatchesStackWalk() {
+        int[] expected = new int[2];
+        int[] actual = new int[2];
+        for (int taskCount : TaskCounts) {
+            StackLayout layout = createLayout(taskCount);
+            for (float stackScroll : getScrolls(layout)) {
+                boolean expectedValid = walkVisibleRange(layout, stackScroll, expected);
+                boolean actualValid = layout.computeVisibleRange(stackScroll, actual);
+                String message = "count " + taskCount + " scroll " + stackScroll;
+                assertEquals(message, expectedValid, actualValid);
+                assertEquals(message, expected[0], actual[0]);
+                assertEquals(message, expected[1], actual[1]);
+            }
+        }
+    }
+
+    @Test
+    public void visibleRangeIsEmptyWithoutTasks() {
+        StackLayout layout = createLayout(0);
+        int[] range = new int[2];
+        assertEquals(false, layout.computeVisibleRange(0f, range));
+        assertEquals(-1, range[0]);
+        assertEquals(-1, range[1]);
+    }
+
+    @Test
+    public void singleTaskIsAlwaysVisible() {
+        StackLayout layout = createLayout(1);
+        int[] range = new int[2];
+        for (float stackScroll : getScrolls(layout)) {
+            assertEquals(true, layout.computeVisibleRange(stackScroll, range));
+            assertEquals(0, range[0]);
+            assertEquals(0, range[1]);
+        }
+    }
+
+    @Test
+    public void nearestTaskMatchesScan() {
+        int[] range = new int[2];
+        for (int taskCount : TaskCounts) {
+            StackLayout layout = createLayout(taskCount);
+            for (float stackScroll : getScrolls(layout)) {
+                if (!layout.computeVisibleRange(stackScroll, range)) continue;
+                int front = range[0];
+                int back = range[1];
+                // Check every translation from above the back most task to below the front most
+                int top = layout.getTaskTranslationY(back, stackScroll) - 100;
+                int bottom = layout.getTaskTranslationY(front, stackScroll) + 100;
+                for (int translationY = top; translationY <= bottom; translationY += 7) {
+                    int expected = scanNearestTask(layout, stackScroll, translationY, front, back);
+                    int actual = layout.getTaskIndexNearestTranslationY(stackScroll, translationY,
+                            front, back);
+                    String message = "count " + taskCount + " scroll " + stackScroll + " y "
+                            + translationY;
+                    assertEquals(message, layout.getTaskTranslationY(expected, stackScroll),
+                            layout.getTaskTranslationY(actual, stackScroll));
+                    assertEquals(message, expected, actual);
+                }
+            }
+        }
+    }
+}
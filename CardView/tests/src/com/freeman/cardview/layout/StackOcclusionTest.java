@@ -0,0 +1,63 @@
+package com.freeman.cardview.layout;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/* Checks the occlusion of the cards and the overdraw of the stack, computed from the transforms of
+ * the stack layout.
+ */
+public class StackOcclusionTest {
+
+    static final int TaskCount = 50;
+    static final int ScrollSteps = 200;
+
+    @Test
+    public void clippingBringsStackedOverdrawNearOne() {
+        StackLayout layout = StackLayoutTest.createLayout(TaskCount);
+        StackTransformBuffer transforms = new StackTransformBuffer();
+        StackTransform tmpTransform = new StackTransform();
+        StackOcclusion occlusion = new StackOcclusion();
+        float minScroll = layout.getMinScrollP();
+        float maxScroll = layout.getMaxScrollP();
+        for (int i = 0; i <= ScrollSteps; i++) {
+            float stackScroll = minScroll + (maxScroll - minScroll) * i / ScrollSteps;
+            layout.computeStackTransforms(stackScroll, transforms, tmpTransform, null, false);
+            occlusion.computeOcclusion(transforms, 0, true);
+            float overdraw = occlusion.getOverdraw();
+            assertTrue("overdraw " + overdraw + " at scroll " + stackScroll,
+                    0.9f <= overdraw && overdraw <= 1.05f);
+        }
+
+        // Without clipping, the cards at the back of a deep stack are drawn several times over
+        layout.computeStackTransforms(maxScroll, transforms, tmpTransform, null, false);
+        occlusion.computeOcclusion(transforms, 0, false);
+        assertTrue("unclipped overdraw " + occlusion.getOverdraw(), occlusion.getOverdraw() > 2f);
+    }
+
+    @Test
+    public void cardsAreHiddenBelowTheContentOfTheOpaqueCardInFront() {
+        StackOcclusion occlusion = new StackOcclusion();
+        assertEquals(StackOcclusion.NoClip, occlusion.addCard(500, 1000, 100, 520, true, true), 0f);
+        assertEquals(520f, occlusion.addCard(300, 800, 100, 320, true, true), 0f);
+        assertEquals(320f, occlusion.addCard(100, 600, 100, 120, true, true), 0f);
+        // 500 + 220 + 220 rows drawn over the 900 rows covered
+        assertEquals(940f / 900f, occlusion.getOverdraw(), 1e-6f);
+    }
+
+    @Test
+    public void cardsBehindATranslucentCardAreNotHidden() {
+        StackOcclusion occlusion = new StackOcclusion();
+        occlusion.addCard(500, 1000, 100, 520, true, false);
+        assertEquals(StackOcclusion.NoClip, occlusion.addCard(300, 800, 100, 320, true, true), 0f);
+        assertEquals(320f, occlusion.addCard(100, 600, 100, 120, true, true), 0f);
+    }
+
+    @Test
+    public void emptyStackHasNoOverdraw() {
+        StackOcclusion occlusion = new StackOcclusion();
+        occlusion.computeOcclusion(new StackTransformBuffer(), 0, true);
+        assertEquals(0f, occlusion.getOverdraw(), 0f);
+    }
+}